@@ -0,0 +1,46 @@
+package guru.springframework.spring6restmvc.benchmarks;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ResourceUtils;
+
+import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.services.BeerCsvService;
+import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
+
+/**
+ * Parsing the bundled {@code beers.csv} into {@link BeerCSVRecord}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BeerCsvBenchmark {
+
+  BeerCsvService beerCsvService = new BeerCsvServiceImpl();
+  File csvFile;
+
+  @Setup
+  public void setUp() throws Exception {
+    csvFile = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+  }
+
+  @Benchmark
+  public List<BeerCSVRecord> convertCSV() {
+    return beerCsvService.convertCSV(csvFile);
+  }
+}
@@ -0,0 +1,95 @@
+package guru.springframework.spring6restmvc.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.services.BeerService;
+import guru.springframework.spring6restmvc.services.BeerServiceImpl;
+import guru.springframework.spring6restmvc.services.BeerServiceJPA;
+
+/**
+ * {@link BeerServiceJPA#listBeers} against the default H2 database, loaded
+ * with the bootstrap CSV data, and {@link BeerServiceImpl#listBeers} over a
+ * copy of the same beers. The JPA numbers include the bulkhead, transaction
+ * and mapping overhead a controller call pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerServiceBenchmark {
+
+  @Param({ "jpa", "memory" })
+  String engine;
+
+  ConfigurableApplicationContext context;
+  BeerService beerService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(Spring6RestMvcApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.guru.springframework=warn")
+        .run();
+    beerService = context.getBean(BeerServiceJPA.class);
+
+    if ("memory".equals(engine)) {
+      BeerServiceImpl inMemory = new BeerServiceImpl();
+      beerService.exportBeers(null, null, inMemory::saveNewBeer);
+      beerService = inMemory;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Page<BeerDTO> listBeersFirstPage() {
+    return beerService.listBeers(null, null, false, 1, 25);
+  }
+
+  @Benchmark
+  public Page<BeerDTO> listBeersDeepPage() {
+    return beerService.listBeers(null, null, false, 90, 25);
+  }
+
+  @Benchmark
+  public Page<BeerDTO> listBeersByNameAndStyle() {
+    return beerService.listBeers("IPA", BeerStyle.IPA, true, 1, 50);
+  }
+
+  @Benchmark
+  public Page<BeerDTO> listBeersByStyle() {
+    return beerService.listBeers(null, BeerStyle.PORTER, false, 1, 25);
+  }
+
+  @Benchmark
+  public CursorPage<BeerDTO> listBeersAfter() {
+    return beerService.listBeersAfter("ale", null, false, null, 25);
+  }
+}
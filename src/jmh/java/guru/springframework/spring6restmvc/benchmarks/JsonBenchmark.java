@@ -0,0 +1,102 @@
+package guru.springframework.spring6restmvc.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+
+/**
+ * Jackson encode/decode of a single {@link BeerDTO} and of full listing pages,
+ * using an {@link ObjectMapper} built the same way Spring Boot builds the
+ * application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JsonBenchmark {
+
+  private static final TypeReference<List<BeerDTO>> BEER_LIST = new TypeReference<>() {
+  };
+
+  @Param({ "25", "1000" })
+  int pageSize;
+
+  ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  BeerDTO beerDTO;
+  byte[] beerJson;
+  Page<BeerDTO> page;
+  byte[] pageJson;
+
+  @Setup
+  public void setUp() throws Exception {
+    List<BeerDTO> beers = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      beers.add(BeerDTO.builder()
+          .id(UUID.randomUUID())
+          .version(1)
+          .beerName("Beer " + i)
+          .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+          .upc(String.valueOf(i))
+          .price(new BigDecimal("12.99"))
+          .quantityOnHand(i)
+          .createdDate(LocalDateTime.now())
+          .updatedDate(LocalDateTime.now())
+          .build());
+    }
+
+    beerDTO = beers.get(0);
+    beerJson = objectMapper.writeValueAsBytes(beerDTO);
+    page = new PageImpl<>(beers, PageRequest.of(0, pageSize), 2410);
+    pageJson = objectMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] encodeBeer() throws Exception {
+    return objectMapper.writeValueAsBytes(beerDTO);
+  }
+
+  @Benchmark
+  public BeerDTO decodeBeer() throws Exception {
+    return objectMapper.readValue(beerJson, BeerDTO.class);
+  }
+
+  @Benchmark
+  public byte[] encodePage() throws Exception {
+    return objectMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public List<BeerDTO> decodePage() throws Exception {
+    JsonNode content = objectMapper.readTree(pageJson).get("content");
+    return objectMapper.convertValue(content, BEER_LIST);
+  }
+}
@@ -0,0 +1,93 @@
+package guru.springframework.spring6restmvc.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.mappers.BeerMapperImpl;
+import guru.springframework.spring6restmvc.mappers.CustomerMapper;
+import guru.springframework.spring6restmvc.mappers.CustomerMapperImpl;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+
+/**
+ * Cost of the generated MapStruct mappers in both directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MappingBenchmark {
+
+  BeerMapper beerMapper = new BeerMapperImpl();
+  CustomerMapper customerMapper = new CustomerMapperImpl();
+
+  Beer beer;
+  BeerDTO beerDTO;
+  Customer customer;
+  CustomerDTO customerDTO;
+
+  @Setup
+  public void setUp() {
+    beer = Beer.builder()
+        .id(UUID.randomUUID())
+        .version(1)
+        .beerName("Galaxy Cat")
+        .beerStyle(BeerStyle.PALE_ALE)
+        .upc("12356")
+        .price(new BigDecimal("12.99"))
+        .quantityOnHand(122)
+        .createdDate(LocalDateTime.now())
+        .updatedDate(LocalDateTime.now())
+        .build();
+    beerDTO = beerMapper.beerToBeerDTO(beer);
+
+    customer = Customer.builder()
+        .id(UUID.randomUUID())
+        .version(1)
+        .customerName("Customer 1")
+        .email("customer1@example.com")
+        .createdDate(LocalDateTime.now())
+        .updatedDate(LocalDateTime.now())
+        .build();
+    customerDTO = customerMapper.customerToCustomerDTO(customer);
+  }
+
+  @Benchmark
+  public BeerDTO beerToBeerDTO() {
+    return beerMapper.beerToBeerDTO(beer);
+  }
+
+  @Benchmark
+  public Beer beerDtoToBeer() {
+    return beerMapper.beerDtoToBeer(beerDTO);
+  }
+
+  @Benchmark
+  public CustomerDTO customerToCustomerDTO() {
+    return customerMapper.customerToCustomerDTO(customer);
+  }
+
+  @Benchmark
+  public Customer customerDtoToCustomer() {
+    return customerMapper.customerDtoToCustomer(customerDTO);
+  }
+}
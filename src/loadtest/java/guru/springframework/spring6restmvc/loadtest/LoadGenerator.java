@@ -0,0 +1,133 @@
+package guru.springframework.spring6restmvc.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import guru.springframework.spring6restmvc.loadtest.LoadTestOptions.Model;
+import guru.springframework.spring6restmvc.loadtest.Workload.Operation;
+import guru.springframework.spring6restmvc.loadtest.Workload.Request;
+
+/**
+ * Drives a {@link Workload} from virtual-thread clients and records the
+ * latency of every request sent after the warmup.
+ * <ul>
+ * <li>Open model: requests are sent at a fixed rate whether or not earlier
+ * ones have completed, each from its own virtual thread.</li>
+ * <li>Closed model: a fixed number of clients each wait for their response
+ * before sending the next request, paced to their share of the rate if one
+ * is set.</li>
+ * </ul>
+ * Latency is measured from when the schedule meant the request to be sent,
+ * not from when it actually was. That is the coordinated-omission
+ * correction: when the server stalls, the requests the schedule would have
+ * sent meanwhile are charged for the stall instead of silently never being
+ * sent. An unpaced closed model has no schedule to fall behind, so it
+ * reports service time.
+ */
+final class LoadGenerator {
+
+  private final LoadTestOptions options;
+  private final Workload workload;
+  private final HttpClient httpClient;
+  private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+  LoadGenerator(LoadTestOptions options, Workload workload) {
+    this.options = options;
+    this.workload = workload;
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+
+    for (Operation operation : Operation.values()) {
+      // microseconds, 3 significant digits, resized as slower requests come in
+      latencies.put(operation, new ConcurrentHistogram(3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  LoadReport run() {
+    long start = System.nanoTime();
+    long measureFrom = start + options.warmup().toNanos();
+    long end = measureFrom + options.duration().toNanos();
+
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      if (options.model() == Model.OPEN) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        for (long intended = start; intended < end; intended += interval) {
+          sleepUntil(intended);
+          long scheduled = intended;
+          clients.execute(() -> send(scheduled, measureFrom));
+        }
+      } else {
+        long interval = options.rate() > 0
+            ? (long) (TimeUnit.SECONDS.toNanos(1) * options.clients() / options.rate())
+            : 0;
+        for (int client = 0; client < options.clients(); client++) {
+          // stagger the paced clients over one interval
+          long first = start + interval * client / options.clients();
+          clients.execute(() -> runClient(first, interval, measureFrom, end));
+        }
+      }
+    }
+    // closing the executor waited for the requests still in flight
+
+    Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+    errors.forEach((operation, count) -> errorCounts.put(operation, count.sum()));
+    return new LoadReport(options, latencies, errorCounts);
+  }
+
+  private void runClient(long first, long interval, long measureFrom, long end) {
+    if (interval == 0) {
+      for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+        send(now, measureFrom);
+      }
+      return;
+    }
+    for (long intended = first; intended < end; intended += interval) {
+      // a client behind schedule sends right away, its latency still counted from the schedule
+      sleepUntil(intended);
+      send(intended, measureFrom);
+    }
+  }
+
+  private void send(long intended, long measureFrom) {
+    Request request = workload.next();
+    boolean failed;
+    try {
+      HttpResponse<Void> response = httpClient.send(request.httpRequest(), BodyHandlers.discarding());
+      failed = response.statusCode() >= 400;
+    } catch (IOException e) {
+      failed = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    if (intended >= measureFrom) {
+      latencies.get(request.operation()).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+      if (failed) {
+        errors.get(request.operation()).increment();
+      }
+    }
+  }
+
+  private static void sleepUntil(long nanoTime) {
+    for (long remaining = nanoTime - System.nanoTime(); remaining > 0; remaining = nanoTime - System.nanoTime()) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package guru.springframework.spring6restmvc.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import guru.springframework.spring6restmvc.loadtest.Workload.Operation;
+
+/**
+ * Throughput and latency percentiles of a run, per operation and overall,
+ * and the configured SLOs the overall figures break.
+ */
+record LoadReport(LoadTestOptions options, Map<Operation, Histogram> latencies, Map<Operation, Long> errors) {
+
+  private static final String ROW = "%-17s %9s %10s %8s %10s %10s %10s %10s%n";
+
+  Histogram total() {
+    Histogram total = new Histogram(3);
+    latencies.values().forEach(total::add);
+    return total;
+  }
+
+  long totalErrors() {
+    return errors.values().stream().mapToLong(Long::longValue).sum();
+  }
+
+  double throughput(Histogram histogram) {
+    return histogram.getTotalCount() / (options.duration().toMillis() / 1000.0);
+  }
+
+  List<String> sloViolations() {
+    Histogram total = total();
+    List<String> violations = new ArrayList<>();
+
+    checkLatency(violations, "p50", total.getValueAtPercentile(50), options.sloP50());
+    checkLatency(violations, "p99", total.getValueAtPercentile(99), options.sloP99());
+    checkLatency(violations, "p99.9", total.getValueAtPercentile(99.9), options.sloP999());
+
+    double errorRate = total.getTotalCount() == 0 ? 0 : totalErrors() / (double) total.getTotalCount();
+    if (options.sloMaxErrorRate() != null && errorRate > options.sloMaxErrorRate()) {
+      violations.add(String.format("error rate %.4f above %.4f", errorRate, options.sloMaxErrorRate()));
+    }
+    if (options.sloMinThroughput() != null && throughput(total) < options.sloMinThroughput()) {
+      violations.add(String.format("throughput %.1f req/s below %.1f", throughput(total), options.sloMinThroughput()));
+    }
+    return violations;
+  }
+
+  String format() {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("%s model, %d clients, %s, %s measured after %s warmup, read ratio %.2f, zipf %.2f%n",
+        options.model(), options.clients(), options.rate() > 0 ? options.rate() + " req/s" : "unpaced",
+        options.duration(), options.warmup(), options.readRatio(), options.zipfExponent()));
+    report.append(String.format(ROW, "operation", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms",
+        "max ms"));
+    latencies.forEach((operation, histogram) -> row(report, operation.name(), histogram, errors.get(operation)));
+    row(report, "TOTAL", total(), totalErrors());
+    return report.toString();
+  }
+
+  private void row(StringBuilder report, String name, Histogram histogram, long errorCount) {
+    report.append(String.format(ROW, name, histogram.getTotalCount(), String.format("%.1f", throughput(histogram)),
+        errorCount, millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue())));
+  }
+
+  private static void checkLatency(List<String> violations, String percentile, long micros, Duration slo) {
+    if (slo != null && micros > slo.toNanos() / 1000) {
+      violations.add(String.format("%s latency %s ms above %d ms", percentile, millis(micros), slo.toMillis()));
+    }
+  }
+
+  private static String millis(long micros) {
+    return String.format("%.2f", micros / 1000.0);
+  }
+}
@@ -0,0 +1,88 @@
+package guru.springframework.spring6restmvc.loadtest;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+
+/**
+ * Boots the application on a random port, against H2 unless profiles say
+ * otherwise, drives a mixed workload at {@code /api/v1/beer} and
+ * {@code /api/v1/customer} and prints throughput and latency percentiles.
+ * Exits with status 1 when an SLO is broken.
+ * <p>
+ * Options, as {@code key=value} arguments:
+ * <ul>
+ * <li>{@code model}: {@code closed} (default) or {@code open}, see {@link LoadGenerator}</li>
+ * <li>{@code clients}: closed-model clients, default 32</li>
+ * <li>{@code rate}: requests per second over all clients; required by the
+ * open model, paces the closed one when set</li>
+ * <li>{@code warmup}, {@code duration}: default 10s and 30s</li>
+ * <li>{@code read-ratio}: share of reads, default 0.9</li>
+ * <li>{@code zipf}: row skew exponent, default 1.0; 0 is uniform</li>
+ * <li>{@code customers}: customers to seed up to, default 1000</li>
+ * <li>{@code profiles}: Spring profiles to run the application with, e.g. {@code localmysql}</li>
+ * <li>{@code slo.p50}, {@code slo.p99}, {@code slo.p99.9}: latency ceilings, e.g. {@code 50ms}</li>
+ * <li>{@code slo.max-error-rate}: e.g. {@code 0.001}</li>
+ * <li>{@code slo.min-throughput}: requests per second</li>
+ * </ul>
+ */
+public class LoadTest {
+
+  public static void main(String[] args) {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+
+    // devtools would restart the application in a fresh class loader, re-running main without the options
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    SpringApplicationBuilder application = new SpringApplicationBuilder(Spring6RestMvcApplication.class);
+    if (options.profiles() != null) {
+      application.profiles(options.profiles().split(","));
+    }
+
+    LoadReport report;
+    // command line properties, so they win over application.properties
+    try (ConfigurableApplicationContext context = application.run("--server.port=0",
+        "--logging.level.guru.springframework=warn")) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      List<UUID> beerIds = context.getBean(BeerRepository.class).findAll().stream()
+          .map(Beer::getId)
+          .toList();
+      List<UUID> customerIds = seedCustomers(context.getBean(CustomerRepository.class), options.customers());
+
+      Workload workload = new Workload(URI.create("http://localhost:" + port), beerIds, customerIds, options);
+      report = new LoadGenerator(options, workload).run();
+    }
+
+    System.out.print(report.format());
+    List<String> violations = report.sloViolations();
+    if (!violations.isEmpty()) {
+      violations.forEach(violation -> System.err.println("SLO broken: " + violation));
+      System.exit(1);
+    }
+  }
+
+  private static List<UUID> seedCustomers(CustomerRepository customerRepository, int customers) {
+    long existing = customerRepository.count();
+    if (existing < customers) {
+      customerRepository.saveAll(IntStream.range((int) existing, customers)
+          .mapToObj(i -> Customer.builder()
+              .customerName("Load Test Customer " + i)
+              .email("load-test-" + i + "@example.com")
+              .build())
+          .toList());
+    }
+    return customerRepository.findAll().stream()
+        .map(Customer::getId)
+        .toList();
+  }
+}
@@ -0,0 +1,78 @@
+package guru.springframework.spring6restmvc.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Load test settings, parsed from {@code key=value} arguments. See
+ * {@link LoadTest} for what each one means; SLOs left unset are not checked.
+ */
+record LoadTestOptions(Model model, int clients, double rate, Duration warmup, Duration duration,
+    double readRatio, double zipfExponent, int customers, String profiles,
+    Duration sloP50, Duration sloP99, Duration sloP999, Double sloMaxErrorRate, Double sloMinThroughput) {
+
+  enum Model {
+    CLOSED, OPEN
+  }
+
+  LoadTestOptions {
+    if (model == Model.OPEN && rate <= 0) {
+      throw new IllegalArgumentException("The open model needs a rate");
+    }
+    if (clients <= 0) {
+      throw new IllegalArgumentException("clients must be positive");
+    }
+    if (readRatio < 0 || readRatio > 1) {
+      throw new IllegalArgumentException("read-ratio must be between 0 and 1");
+    }
+  }
+
+  static LoadTestOptions parse(String... args) {
+    Map<String, String> values = new LinkedHashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected key=value, got " + arg);
+      }
+      values.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+
+    LoadTestOptions options = new LoadTestOptions(
+        Model.valueOf(take(values, "model", "closed").toUpperCase(Locale.ROOT)),
+        Integer.parseInt(take(values, "clients", "32")),
+        Double.parseDouble(take(values, "rate", "0")),
+        duration(take(values, "warmup", "10s")),
+        duration(take(values, "duration", "30s")),
+        Double.parseDouble(take(values, "read-ratio", "0.9")),
+        Double.parseDouble(take(values, "zipf", "1.0")),
+        Integer.parseInt(take(values, "customers", "1000")),
+        take(values, "profiles", null),
+        duration(take(values, "slo.p50", null)),
+        duration(take(values, "slo.p99", null)),
+        duration(take(values, "slo.p99.9", null)),
+        decimal(take(values, "slo.max-error-rate", null)),
+        decimal(take(values, "slo.min-throughput", null)));
+
+    if (!values.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options " + values.keySet());
+    }
+    return options;
+  }
+
+  private static String take(Map<String, String> values, String key, String defaultValue) {
+    String value = values.remove(key);
+    return value == null || value.isBlank() ? defaultValue : value;
+  }
+
+  private static Duration duration(String value) {
+    return value == null ? null : DurationStyle.detectAndParse(value);
+  }
+
+  private static Double decimal(String value) {
+    return value == null ? null : Double.valueOf(value);
+  }
+}
@@ -0,0 +1,106 @@
+package guru.springframework.spring6restmvc.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import guru.springframework.spring6restmvc.controllers.BeerController;
+import guru.springframework.spring6restmvc.controllers.CustomerController;
+
+/**
+ * The request mix. Reads fetch a beer, a page of beers or a customer; writes
+ * patch a beer's stock, adjust its inventory or rename a customer. Rows and
+ * pages are picked through a {@link ZipfSampler}, over a shuffled order so
+ * the hot rows are not simply the oldest ones.
+ */
+final class Workload {
+
+  static final int PAGE_SIZE = 25;
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  enum Operation {
+    GET_BEER, LIST_BEERS, GET_CUSTOMER, PATCH_BEER, ADJUST_INVENTORY, PATCH_CUSTOMER
+  }
+
+  record Request(Operation operation, HttpRequest httpRequest) {
+  }
+
+  private final URI baseUri;
+  private final double readRatio;
+  private final List<UUID> beerIds;
+  private final List<UUID> customerIds;
+  private final ZipfSampler beers;
+  private final ZipfSampler pages;
+  private final ZipfSampler customers;
+
+  Workload(URI baseUri, List<UUID> beerIds, List<UUID> customerIds, LoadTestOptions options) {
+    this.baseUri = baseUri;
+    this.readRatio = options.readRatio();
+    this.beerIds = shuffled(beerIds);
+    this.customerIds = shuffled(customerIds);
+    this.beers = new ZipfSampler(beerIds.size(), options.zipfExponent());
+    this.pages = new ZipfSampler(Math.ceilDiv(beerIds.size(), PAGE_SIZE), options.zipfExponent());
+    this.customers = new ZipfSampler(customerIds.size(), options.zipfExponent());
+  }
+
+  Request next() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    double pick = random.nextDouble();
+
+    if (random.nextDouble() < readRatio) {
+      if (pick < 0.6) {
+        return get(Operation.GET_BEER, BeerController.BEER_PATH + "/" + beerIds.get(beers.next()));
+      }
+      if (pick < 0.8) {
+        return get(Operation.LIST_BEERS, BeerController.BEER_PATH + "?pageSize=" + PAGE_SIZE
+            + "&pageNumber=" + (pages.next() + 1));
+      }
+      return get(Operation.GET_CUSTOMER, CustomerController.CUSTOMER_PATH + "/" + customerIds.get(customers.next()));
+    }
+
+    if (pick < 0.4) {
+      return patch(Operation.PATCH_BEER, BeerController.BEER_PATH + "/" + beerIds.get(beers.next()),
+          "{\"quantityOnHand\":" + random.nextInt(500) + "}");
+    }
+    if (pick < 0.8) {
+      return post(Operation.ADJUST_INVENTORY,
+          BeerController.BEER_PATH + "/" + beerIds.get(beers.next()) + "/inventory", "{\"delta\":1}");
+    }
+    return patch(Operation.PATCH_CUSTOMER, CustomerController.CUSTOMER_PATH + "/" + customerIds.get(customers.next()),
+        "{\"customerName\":\"Load Test " + random.nextInt(1000) + "\"}");
+  }
+
+  private Request get(Operation operation, String path) {
+    return new Request(operation, request(path).GET().build());
+  }
+
+  private Request patch(Operation operation, String path, String json) {
+    return new Request(operation, request(path).method("PATCH", BodyPublishers.ofString(json)).build());
+  }
+
+  private Request post(Operation operation, String path, String json) {
+    return new Request(operation, request(path).POST(BodyPublishers.ofString(json)).build());
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Content-Type", "application/json")
+        .header("Accept", "application/json");
+  }
+
+  private static List<UUID> shuffled(List<UUID> ids) {
+    List<UUID> shuffled = new ArrayList<>(ids);
+    // fixed seed, so runs against the same data share their hot rows
+    Collections.shuffle(shuffled, new Random(42));
+    return shuffled;
+  }
+}
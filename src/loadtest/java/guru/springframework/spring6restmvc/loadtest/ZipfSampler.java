@@ -0,0 +1,34 @@
+package guru.springframework.spring6restmvc.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws ranks in {@code [0, size)} with probability proportional to
+ * {@code 1 / (rank + 1)^exponent}, so a few hot rows take most of the
+ * traffic. An exponent of 0 is uniform.
+ */
+final class ZipfSampler {
+
+  private final double[] cumulative;
+
+  ZipfSampler(int size, double exponent) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Nothing to sample from");
+    }
+    cumulative = new double[size];
+    double sum = 0;
+    for (int rank = 0; rank < size; rank++) {
+      sum += 1 / Math.pow(rank + 1, exponent);
+      cumulative[rank] = sum;
+    }
+    for (int rank = 0; rank < size; rank++) {
+      cumulative[rank] /= sum;
+    }
+  }
+
+  int next() {
+    int rank = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+    return Math.min(rank >= 0 ? rank : -rank - 1, cumulative.length - 1);
+  }
+}
@@ -1,69 +1,136 @@
 package guru.springframework.spring6restmvc.bootstrap;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
-
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.boot.CommandLineRunner;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ResourceUtils;
 
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.entities.Customer;
-import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerCsvIngestReport;
 import guru.springframework.spring6restmvc.model.BeerStyle;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
-import guru.springframework.spring6restmvc.services.BeerCsvService;
-import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
-
+import guru.springframework.spring6restmvc.services.BeerCsvIngestService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seeds sample beers, the bundled CSV catalog and sample customers once the
+ * application is ready, on a background thread unless
+ * {@code app.bootstrap.async} is off, so the port opens without waiting for it.
+ * <p>
+ * Seeding is idempotent and resumable: sample beers and CSV rows are matched
+ * by UPC and only the missing ones stored, and customers are only added to an
+ * empty table, in one transaction. After an interrupted run the next start
+ * picks up where it stopped.
+ * <p>
+ * As the {@code bootstrapData} health indicator it reports
+ * {@code OUT_OF_SERVICE} until seeding has finished, which keeps
+ * {@code /actuator/health/readiness} from admitting traffic until then.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
-public class BootstrapData implements CommandLineRunner {
+public class BootstrapData implements HealthIndicator, DisposableBean {
+
+  static final String CSV_RESOURCE = "csvdata/beers.csv";
+
+  enum State {
+    PENDING, SEEDING, DONE, FAILED
+  }
 
   private final BeerRepository beerRepository;
   private final CustomerRepository customerRepository;
-  private final BeerCsvService beerCsvService;
+  private final BeerCsvIngestService beerCsvIngestService;
+  private final boolean enabled;
+  private final boolean async;
+  private final ExecutorService seeder;
+  private volatile State state = State.PENDING;
+  private volatile Exception failure;
+
+  public BootstrapData(BeerRepository beerRepository, CustomerRepository customerRepository,
+      BeerCsvIngestService beerCsvIngestService,
+      @Value("${app.bootstrap.enabled:true}") boolean enabled,
+      @Value("${app.bootstrap.async:true}") boolean async) {
+    this.beerRepository = beerRepository;
+    this.customerRepository = customerRepository;
+    this.beerCsvIngestService = beerCsvIngestService;
+    this.enabled = enabled;
+    this.async = async;
+    this.seeder = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("bootstrap-data").factory());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (!enabled) {
+      state = State.DONE;
+    } else if (async) {
+      seeder.execute(() -> {
+        try {
+          seed();
+        } catch (RuntimeException e) {
+          log.error("Seeding bootstrap data failed, it resumes on the next start", e);
+        }
+      });
+    } else {
+      seed();
+    }
+  }
+
+  /**
+   * Stores whatever bootstrap data is missing.
+   */
+  public void seed() {
+    state = State.SEEDING;
+    try {
+      loadBeerData();
+      loadCsvData();
+      loadCustomerData();
+      state = State.DONE;
+    } catch (RuntimeException e) {
+      failure = e;
+      state = State.FAILED;
+      throw e;
+    }
+  }
+
+  State getState() {
+    return state;
+  }
 
-  @Transactional
   @Override
-  public void run(String... args) throws Exception {
-    loadBeerData();
-    loadCsvData();
-    loadCustomerData();
+  public Health health() {
+    return switch (state) {
+      case DONE -> Health.up().build();
+      case FAILED -> Health.down(failure).build();
+      default -> Health.outOfService().withDetail("state", state).build();
+    };
   }
 
-  private void loadCsvData() throws FileNotFoundException {
-    if (beerRepository.count() < 10) {
-      File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
-      List<BeerCSVRecord> records = beerCsvService.convertCSV(file);
-
-      for (BeerCSVRecord beerCSVRecord : records) {
-        BeerStyle beerStyle = switch (beerCSVRecord.getStyle()) {
-          case "American Pale Lager" -> BeerStyle.LAGER;
-          case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
-            BeerStyle.ALE;
-          case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
-          case "American Porter" -> BeerStyle.PORTER;
-          case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
-          case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
-          case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
-          case "English Pale Ale" -> BeerStyle.PALE_ALE;
-          default -> BeerStyle.PILSNER;
-        };
-
-        beerRepository.save(Beer.builder()
-            .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
-            .beerStyle(beerStyle)
-            .price(BigDecimal.TEN)
-            .upc(beerCSVRecord.getRow().toString())
-            .quantityOnHand(beerCSVRecord.getCount())
-            .build());
-      }
+  private void loadCsvData() {
+    ClassPathResource csv = new ClassPathResource(CSV_RESOURCE);
+    // streamed, a classpath resource is not a file when running from the jar
+    try (InputStreamReader reader = new InputStreamReader(csv.getInputStream(), StandardCharsets.UTF_8)) {
+      BeerCsvIngestReport report = beerCsvIngestService.ingest(reader, true);
+
+      report.getStages().forEach(stage -> log.info("CSV ingest stage {}: {} items on {} threads, {} items/s",
+          stage.getStage(), stage.getItems(), stage.getThreads(), stage.getItemsPerSecond()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read " + CSV_RESOURCE, e);
     }
   }
 
@@ -81,50 +148,49 @@ public class BootstrapData implements CommandLineRunner {
           .updatedDate(LocalDateTime.now())
           .build();
 
-      Customer savedCustomerOne = customerRepository.save(customerOne);
-      Customer savedCustomerTwo = customerRepository.save(customerTwo);
-
+      customerRepository.saveAll(List.of(customerOne, customerTwo));
     }
 
   }
 
   private void loadBeerData() {
-    if (beerRepository.count() == 0) {
-
-      Beer beerOne = Beer.builder()
-          .beerName("Galaxy Cat")
-          .beerStyle(BeerStyle.PALE_ALE)
-          .upc("123456")
-          .price(new BigDecimal("12.99"))
-          .quantityOnHand(122)
-          .createdDate(LocalDateTime.now())
-          .updatedDate(LocalDateTime.now())
-          .build();
-
-      Beer beerTwo = Beer.builder()
-          .beerName("Crank")
-          .beerStyle(BeerStyle.PALE_ALE)
-          .upc("123456222")
-          .price(new BigDecimal("11.99"))
-          .quantityOnHand(392)
-          .createdDate(LocalDateTime.now())
-          .updatedDate(LocalDateTime.now())
-          .build();
-
-      Beer beerThree = Beer.builder()
-          .beerName("Sunshine City")
-          .beerStyle(BeerStyle.IPA)
-          .upc("123456789")
-          .price(new BigDecimal("11.99"))
-          .quantityOnHand(553)
-          .createdDate(LocalDateTime.now())
-          .updatedDate(LocalDateTime.now())
-          .build();
-
-      Beer beerOneSaved = beerRepository.save(beerOne);
-      Beer beerTwoSaved = beerRepository.save(beerTwo);
-      Beer beerThreesaved = beerRepository.save(beerThree);
-    }
+    Beer beerOne = Beer.builder()
+        .beerName("Galaxy Cat")
+        .beerStyle(BeerStyle.PALE_ALE)
+        .upc("123456")
+        .price(new BigDecimal("12.99"))
+        .quantityOnHand(122)
+        .createdDate(LocalDateTime.now())
+        .updatedDate(LocalDateTime.now())
+        .build();
+
+    Beer beerTwo = Beer.builder()
+        .beerName("Crank")
+        .beerStyle(BeerStyle.PALE_ALE)
+        .upc("123456222")
+        .price(new BigDecimal("11.99"))
+        .quantityOnHand(392)
+        .createdDate(LocalDateTime.now())
+        .updatedDate(LocalDateTime.now())
+        .build();
+
+    Beer beerThree = Beer.builder()
+        .beerName("Sunshine City")
+        .beerStyle(BeerStyle.IPA)
+        .upc("123456789")
+        .price(new BigDecimal("11.99"))
+        .quantityOnHand(553)
+        .createdDate(LocalDateTime.now())
+        .updatedDate(LocalDateTime.now())
+        .build();
+
+    List<Beer> beers = List.of(beerOne, beerTwo, beerThree);
+    Set<String> existing = beerRepository.findUpcsByUpcIn(beers.stream().map(Beer::getUpc).toList());
+    beerRepository.saveAll(beers.stream().filter(beer -> !existing.contains(beer.getUpc())).toList());
   }
 
+  @Override
+  public void destroy() {
+    seeder.shutdownNow();
+  }
 }
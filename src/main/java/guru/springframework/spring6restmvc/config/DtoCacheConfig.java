@@ -0,0 +1,37 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.services.DtoCache;
+
+@Configuration
+public class DtoCacheConfig {
+
+  @Bean
+  public DtoCache<BeerDTO> beerDtoCache(@Value("${app.cache.beer.enabled:true}") boolean enabled,
+      @Value("${app.cache.beer.maximum-size:10000}") long maximumSize,
+      @Value("${app.cache.beer.ttl:10m}") Duration ttl) {
+    return enabled ? DtoCache.of(maximumSize, ttl, DtoCacheConfig::versionOf) : DtoCache.disabled();
+  }
+
+  @Bean
+  public DtoCache<CustomerDTO> customerDtoCache(@Value("${app.cache.customer.enabled:true}") boolean enabled,
+      @Value("${app.cache.customer.maximum-size:10000}") long maximumSize,
+      @Value("${app.cache.customer.ttl:10m}") Duration ttl) {
+    return enabled ? DtoCache.of(maximumSize, ttl, DtoCacheConfig::versionOf) : DtoCache.disabled();
+  }
+
+  private static int versionOf(BeerDTO beer) {
+    return beer.getVersion() == null ? 0 : beer.getVersion();
+  }
+
+  private static int versionOf(CustomerDTO customer) {
+    return customer.getVersion() == null ? 0 : customer.getVersion();
+  }
+}
@@ -0,0 +1,79 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.services.DbBulkhead;
+import guru.springframework.spring6restmvc.services.DtoCache;
+import guru.springframework.spring6restmvc.services.InventoryDeltaCoalescer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Meters for the application's own moving parts. HTTP latency, the Hikari
+ * pool, Hibernate statistics and the JVM are bound by Spring Boot's
+ * auto-configuration, see {@code management.*} in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public MeterBinder dbBulkheadMetrics(DbBulkhead dbBulkhead) {
+    return registry -> {
+      Gauge.builder("db.bulkhead.permits", dbBulkhead, DbBulkhead::getMaxConcurrent)
+          .description("Concurrent database calls allowed")
+          .register(registry);
+      Gauge.builder("db.bulkhead.active", dbBulkhead, DbBulkhead::getActive)
+          .description("Database calls holding a permit")
+          .register(registry);
+      Gauge.builder("db.bulkhead.waiting", dbBulkhead, DbBulkhead::getWaiting)
+          .description("Callers queued for a permit")
+          .register(registry);
+      FunctionCounter.builder("db.bulkhead.admitted", dbBulkhead, DbBulkhead::getAdmitted)
+          .register(registry);
+      FunctionCounter.builder("db.bulkhead.rejected", dbBulkhead, DbBulkhead::getRejected)
+          .description("Callers turned away with a 503")
+          .register(registry);
+      FunctionCounter.builder("db.bulkhead.queue.time", dbBulkhead,
+          bulkhead -> bulkhead.getTotalQueueTime().toNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+          .baseUnit("seconds")
+          .description("Time callers spent queued for a permit")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder inventoryCoalescerMetrics(InventoryDeltaCoalescer coalescer) {
+    return registry -> {
+      FunctionCounter.builder("inventory.coalescer.submitted", coalescer, InventoryDeltaCoalescer::getSubmitted)
+          .description("Inventory deltas queued")
+          .register(registry);
+      FunctionCounter.builder("inventory.coalescer.applied", coalescer, InventoryDeltaCoalescer::getApplied)
+          .description("Per-beer net deltas written")
+          .register(registry);
+      FunctionCounter.builder("inventory.coalescer.rejected", coalescer, InventoryDeltaCoalescer::getRejected)
+          .description("Per-beer net deltas dropped for insufficient stock")
+          .register(registry);
+      FunctionCounter.builder("inventory.coalescer.flushes", coalescer, InventoryDeltaCoalescer::getFlushes)
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder dtoCacheMetrics(DtoCache<BeerDTO> beerDtoCache, DtoCache<CustomerDTO> customerDtoCache) {
+    return registry -> {
+      if (beerDtoCache.isEnabled()) {
+        CaffeineCacheMetrics.monitor(registry, beerDtoCache.nativeCache(), "beerDto");
+      }
+      if (customerDtoCache.isEnabled()) {
+        CaffeineCacheMetrics.monitor(registry, customerDtoCache.nativeCache(), "customerDto");
+      }
+    };
+  }
+}
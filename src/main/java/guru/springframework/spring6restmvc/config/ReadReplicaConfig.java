@@ -0,0 +1,95 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read/write split. Connections are handed out lazily, so by the time one is
+ * really needed the transaction's read-only flag is known: read-only
+ * transactions go to the {@link ReplicaRoutingDataSource}, everything else to
+ * the primary. Replicas reuse the primary's credentials and Hikari settings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${app.datasource.replicas.urls}") List<String> replicaUrls,
+      @Value("${app.datasource.replicas.health-check-interval:5s}") Duration healthCheckInterval) {
+
+    HikariDataSource primary = createPool(properties, properties.determineUrl(), environment);
+    String poolName = primary.getPoolName() == null ? "HikariPool" : primary.getPoolName();
+    primary.setPoolName(poolName + "-primary");
+
+    List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+    for (int i = 0; i < replicaUrls.size(); i++) {
+      HikariDataSource replica = createPool(properties, replicaUrls.get(i).trim(), environment);
+      replica.setPoolName(poolName + "-replica-" + i);
+      replica.setReadOnly(true);
+      // Boot's pool metrics only reach the primary, through the dataSource bean
+      meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(
+          new MicrometerMetricsTrackerFactory(registry)));
+      replicas.add(replica);
+    }
+
+    return new ReplicaRoutingDataSource(primary, replicas, healthCheckInterval.toMillis());
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+        replicaRoutingDataSource.getPrimary());
+    dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+    return dataSource;
+  }
+
+  @Bean
+  public ReadYourWritesFilter readYourWritesFilter(
+      @Value("${app.datasource.replicas.sticky-window:5s}") Duration stickyWindow) {
+    return new ReadYourWritesFilter(stickyWindow);
+  }
+
+  /**
+   * Applied to the application task executor, which also runs async request
+   * processing such as the streamed exports. Without it they would leave the
+   * request thread, and with it the read-your-writes pin, and read from a
+   * replica.
+   */
+  @Bean
+  public TaskDecorator primaryRequiredTaskDecorator() {
+    return ReplicaRoutingDataSource::withPrimaryRequired;
+  }
+
+  private static HikariDataSource createPool(DataSourceProperties properties, String url, Environment environment) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .url(url)
+        .build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+    return dataSource;
+  }
+}
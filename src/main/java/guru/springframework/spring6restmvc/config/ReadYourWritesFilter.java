@@ -0,0 +1,72 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Read-your-writes stickiness. A client issuing a mutating request is handed a
+ * cookie holding the time until which its reads are served by the primary, so
+ * it never reads from a replica that has not caught up with its own write yet.
+ * Keeping the state in the cookie makes it work across application instances.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String COOKIE_NAME = "primary-until";
+
+  private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+  private final Duration window;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.window = window;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+
+    long now = System.currentTimeMillis();
+
+    if (MUTATING_METHODS.contains(request.getMethod())) {
+      // set before the chain runs, the response may be committed by the time it returns
+      Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + window.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+      response.addCookie(cookie);
+    }
+
+    ReplicaRoutingDataSource.setPrimaryRequired(primaryUntil(request) > now);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReplicaRoutingDataSource.setPrimaryRequired(false);
+    }
+  }
+
+  private static long primaryUntil(HttpServletRequest request) {
+    if (request.getCookies() == null) {
+      return 0;
+    }
+
+    for (Cookie cookie : request.getCookies()) {
+      if (COOKIE_NAME.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,160 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Target for read-only connections: spreads them round robin over the replicas
+ * that passed their last health check. Falls back to the primary when no
+ * replica is healthy or the current request must read its own writes.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+  private static final String PRIMARY = "primary";
+  private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+  private final HikariDataSource primary;
+  private final List<HikariDataSource> replicas;
+  private final AtomicBoolean[] healthy;
+  private final AtomicInteger next = new AtomicInteger();
+  private final ScheduledExecutorService healthChecks;
+
+  public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+      long healthCheckIntervalMillis) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    // replicas start out unhealthy so nothing is routed to them before a check has passed
+    this.healthy = new AtomicBoolean[replicas.size()];
+    for (int i = 0; i < healthy.length; i++) {
+      healthy[i] = new AtomicBoolean();
+    }
+
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targets.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+
+    this.healthChecks = new ScheduledThreadPoolExecutor(1, Thread.ofVirtual().name("replica-health").factory());
+    this.healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Pins read-only connections taken by the current thread to the primary.
+   */
+  public static void setPrimaryRequired(boolean required) {
+    if (required) {
+      PRIMARY_REQUIRED.set(Boolean.TRUE);
+    } else {
+      PRIMARY_REQUIRED.remove();
+    }
+  }
+
+  public static boolean isPrimaryRequired() {
+    return PRIMARY_REQUIRED.get() != null;
+  }
+
+  /**
+   * Runs {@code action} with the read-only connections it takes pinned to the
+   * primary, for reads whose result outlives the request, such as shared cache
+   * entries, and must not come from a lagging replica.
+   */
+  public static <T> T onPrimary(Supplier<T> action) {
+    boolean previous = isPrimaryRequired();
+    setPrimaryRequired(true);
+    try {
+      return action.get();
+    } finally {
+      setPrimaryRequired(previous);
+    }
+  }
+
+  /**
+   * Wraps {@code task} so it runs pinned to the primary if the calling thread
+   * is pinned now, whichever thread it ends up running on.
+   */
+  public static Runnable withPrimaryRequired(Runnable task) {
+    boolean required = isPrimaryRequired();
+    return () -> {
+      boolean previous = isPrimaryRequired();
+      setPrimaryRequired(required);
+      try {
+        task.run();
+      } finally {
+        setPrimaryRequired(previous);
+      }
+    };
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (isPrimaryRequired()) {
+      return PRIMARY;
+    }
+
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+    for (int i = 0; i < replicas.size(); i++) {
+      int candidate = (start + i) % replicas.size();
+      if (healthy[candidate].get()) {
+        return candidate;
+      }
+    }
+    return PRIMARY;
+  }
+
+  public void checkHealth() {
+    for (int i = 0; i < replicas.size(); i++) {
+      HikariDataSource replica = replicas.get(i);
+      boolean up;
+      try (Connection connection = replica.getConnection()) {
+        up = connection.isValid(2);
+      } catch (Exception e) {
+        up = false;
+      }
+
+      if (healthy[i].getAndSet(up) != up) {
+        log.info("Read replica {} is now {}", replica.getPoolName(), up ? "UP" : "DOWN");
+      }
+    }
+  }
+
+  public boolean isHealthy(int replica) {
+    return healthy[replica].get();
+  }
+
+  public DataSource getPrimary() {
+    return primary;
+  }
+
+  public List<HikariDataSource> getReplicas() {
+    return replicas;
+  }
+
+  @Override
+  public void destroy() {
+    healthChecks.shutdownNow();
+    replicas.forEach(HikariDataSource::close);
+    primary.close();
+  }
+}
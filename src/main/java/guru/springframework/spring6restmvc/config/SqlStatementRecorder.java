@@ -0,0 +1,116 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread into every
+ * {@link Recording} open on it: the per-request {@link StatementBudgetFilter},
+ * or a test pinning the statements an endpoint issues.
+ * <p>
+ * Statements are recorded normalized, whitespace collapsed and parameter lists
+ * of any length folded to {@code (?...)}, so an {@code in} query over 3 ids
+ * and one over 4 count as the same statement.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+  private static final ThreadLocal<Deque<Recording>> RECORDINGS = new ThreadLocal<>();
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\?(?:, ?\\?)*\\)");
+
+  @Override
+  public String inspect(String sql) {
+    Deque<Recording> recordings = RECORDINGS.get();
+    if (recordings != null) {
+      String statement = normalize(sql);
+      recordings.forEach(recording -> recording.add(statement));
+    }
+    return sql;
+  }
+
+  /**
+   * Starts recording the statements issued on the current thread, until the
+   * recording is closed. Recordings nest.
+   */
+  public static Recording start() {
+    Deque<Recording> recordings = RECORDINGS.get();
+    if (recordings == null) {
+      recordings = new ArrayDeque<>();
+      RECORDINGS.set(recordings);
+    }
+    Recording recording = new Recording();
+    recordings.push(recording);
+    return recording;
+  }
+
+  /**
+   * Runs the action and returns the statements it issued on this thread.
+   */
+  public static Recording record(Runnable action) {
+    try (Recording recording = start()) {
+      action.run();
+      return recording;
+    }
+  }
+
+  static String normalize(String sql) {
+    String statement = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+    return PARAMETER_LIST.matcher(statement).replaceAll("(?...)");
+  }
+
+  public static final class Recording implements AutoCloseable {
+
+    private final List<String> statements = new ArrayList<>();
+    private final Map<String, Integer> occurrences = new LinkedHashMap<>();
+
+    private void add(String statement) {
+      statements.add(statement);
+      occurrences.merge(statement, 1, Integer::sum);
+    }
+
+    public int count() {
+      return statements.size();
+    }
+
+    /**
+     * The normalized statements, in the order they were issued.
+     */
+    public List<String> statements() {
+      return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Statements issued more than {@code threshold} times, with their counts;
+     * the usual sign of an N+1 select.
+     */
+    public Map<String, Integer> repeatedMoreThan(int threshold) {
+      Map<String, Integer> repeated = new LinkedHashMap<>();
+      occurrences.forEach((statement, count) -> {
+        if (count > threshold) {
+          repeated.put(statement, count);
+        }
+      });
+      return repeated;
+    }
+
+    @Override
+    public void close() {
+      Deque<Recording> recordings = RECORDINGS.get();
+      if (recordings != null) {
+        recordings.remove(this);
+        if (recordings.isEmpty()) {
+          RECORDINGS.remove();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package guru.springframework.spring6restmvc.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hooks {@link SqlStatementRecorder} into Hibernate and, unless disabled, the
+ * per-request {@link StatementBudgetFilter} on top of it.
+ */
+@Configuration
+public class StatementBudgetConfig {
+
+  @Bean
+  public HibernatePropertiesCustomizer sqlStatementRecorder() {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementRecorder());
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "app.sql.statement-budget.enabled", havingValue = "true", matchIfMissing = true)
+  public StatementBudgetFilter statementBudgetFilter(
+      @Value("${app.sql.statement-budget.max-statements:10}") int maxStatements,
+      @Value("${app.sql.statement-budget.max-repeats:3}") int maxRepeats,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new StatementBudgetFilter(maxStatements, maxRepeats, meterRegistry.getIfAvailable());
+  }
+}
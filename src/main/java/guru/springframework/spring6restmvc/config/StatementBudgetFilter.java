@@ -0,0 +1,91 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import guru.springframework.spring6restmvc.config.SqlStatementRecorder.Recording;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts the SQL statements each request issues and warns about requests over
+ * the budget, or repeating the same statement often enough to look like an
+ * N+1 select. Counts are published as {@code http.server.requests.statements}
+ * per endpoint, violations as {@code http.server.requests.statement.budget.exceeded}.
+ * <p>
+ * Only statements issued on the request thread are seen; streamed exports
+ * run theirs on an async thread.
+ */
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+  private final int maxStatements;
+  private final int maxRepeats;
+  private final MeterRegistry meterRegistry;
+
+  public StatementBudgetFilter(int maxStatements, int maxRepeats, MeterRegistry meterRegistry) {
+    this.maxStatements = maxStatements;
+    this.maxRepeats = maxRepeats;
+    this.meterRegistry = meterRegistry == null ? Metrics.globalRegistry : meterRegistry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+
+    try (Recording recording = SqlStatementRecorder.start()) {
+      filterChain.doFilter(request, response);
+      check(request, recording);
+    }
+  }
+
+  private void check(HttpServletRequest request, Recording recording) {
+    String method = request.getMethod();
+    String uri = uri(request);
+
+    DistributionSummary.builder("http.server.requests.statements")
+        .description("SQL statements issued per request")
+        .tag("method", method)
+        .tag("uri", uri)
+        .register(meterRegistry)
+        .record(recording.count());
+
+    if (recording.count() > maxStatements) {
+      exceeded(method, uri, "statements");
+      log.warn("{} {} issued {} SQL statements, budget is {}: {}", method, request.getRequestURI(),
+          recording.count(), maxStatements, recording.statements());
+    }
+
+    Map<String, Integer> repeated = recording.repeatedMoreThan(maxRepeats);
+    if (!repeated.isEmpty()) {
+      exceeded(method, uri, "repeats");
+      repeated.forEach((statement, count) -> log.warn("{} {} repeated a statement {} times, possible N+1: {}",
+          method, request.getRequestURI(), count, statement));
+    }
+  }
+
+  private void exceeded(String method, String uri, String reason) {
+    Counter.builder("http.server.requests.statement.budget.exceeded")
+        .tag("method", method)
+        .tag("uri", uri)
+        .tag("reason", reason)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  private static String uri(HttpServletRequest request) {
+    // the mapped pattern keeps the tag's cardinality bounded
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern == null ? "UNKNOWN" : pattern.toString();
+  }
+}
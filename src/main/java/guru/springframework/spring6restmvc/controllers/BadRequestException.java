@@ -0,0 +1,23 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Bad Request")
+public class BadRequestException extends RuntimeException {
+
+  public BadRequestException() {
+  }
+
+  public BadRequestException(String message) {
+    super(message);
+  }
+
+  public BadRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public BadRequestException(Throwable cause) {
+    super(cause);
+  }
+}
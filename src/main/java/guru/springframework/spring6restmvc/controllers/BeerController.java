@@ -1,12 +1,30 @@
 package guru.springframework.spring6restmvc.controllers;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,31 +33,80 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.opencsv.CSVWriter;
+
+import guru.springframework.spring6restmvc.model.BeerBatchDeleteResult;
+import guru.springframework.spring6restmvc.model.BeerBatchResult;
+import guru.springframework.spring6restmvc.model.BeerCursor;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStats;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CountMode;
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.InventoryAdjustment;
+import guru.springframework.spring6restmvc.model.InventoryDelta;
+import guru.springframework.spring6restmvc.model.ExportFormat;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 import guru.springframework.spring6restmvc.services.BeerService;
-import lombok.AllArgsConstructor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 @RestController
 public class BeerController {
 
   public static final String BEER_PATH = "/api/v1/beer";
   public static final String BEER_PATH_ID = BEER_PATH + "/{id}";
+  public static final String BEER_BATCH_PATH = BEER_PATH + "/batch";
+  public static final String BEER_EXPORT_PATH = BEER_PATH + "/export";
+  public static final String BEER_DELETE_BATCH_PATH = BEER_PATH + "/delete-batch";
+  public static final String BEER_INVENTORY_PATH = BEER_PATH_ID + "/inventory";
+  public static final String BEER_STATS_PATH = BEER_PATH + "/stats";
+
+  public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+  private static final String[] PATCHABLE_PROPERTIES = { "beerName", "beerStyle", "upc", "quantityOnHand",
+      "price" };
+
+  private static final String[] CSV_HEADER = { "id", "version", "beerName", "beerStyle", "upc", "quantityOnHand",
+      "price", "createdDate", "updatedDate" };
+
+  public static final int BEER_BATCH_MAX_SIZE = 50_000;
 
   private final BeerService beerService;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+
+  @Value("${app.beer.export.timeout:1h}")
+  private Duration exportTimeout;
 
   @PatchMapping(BEER_PATH_ID)
-  public ResponseEntity<?> patchById(@PathVariable("id") UUID beerId, @RequestBody BeerDTO beer) {
-    if (beerService.patchById(beerId, beer).isEmpty()) {
-      throw new NotFoundException();
+  public ResponseEntity<?> patchById(@PathVariable("id") UUID beerId, @RequestBody BeerDTO beer,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    List<Map<String, String>> errors = validatePatch(beer);
+    if (!errors.isEmpty()) {
+      return ResponseEntity.badRequest().body(errors);
+    }
+
+    Integer expectedVersion = ConditionalRequests.expectedVersion(ifMatch, beerId);
+    try {
+      return noContent(beerService.patchById(beerId, beer, expectedVersion).orElseThrow(NotFoundException::new));
+    } catch (OptimisticLockingFailureException e) {
+      throw new PreconditionFailedException(e.getMessage(), e);
     }
-    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
   @DeleteMapping(BEER_PATH_ID)
@@ -50,12 +117,83 @@ public class BeerController {
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  @PostMapping(BEER_INVENTORY_PATH)
+  public ResponseEntity<InventoryAdjustment> adjustInventory(@PathVariable("id") UUID beerId,
+      @Validated @RequestBody InventoryDelta inventoryDelta) {
+    InventoryAdjustment adjustment = beerService.adjustInventory(beerId, inventoryDelta.delta())
+        .orElseThrow(NotFoundException::new);
+
+    if (adjustment.isQueued()) {
+      return ResponseEntity.accepted().body(adjustment);
+    }
+    return ResponseEntity.ok()
+        .eTag(ConditionalRequests.eTag(beerId, adjustment.getVersion()))
+        .body(adjustment);
+  }
+
+  @DeleteMapping(value = BEER_PATH, params = "ids")
+  public ResponseEntity<BeerBatchDeleteResult> deleteByIds(@RequestParam List<UUID> ids) {
+    return deleteBatch(ids);
+  }
+
+  @PostMapping(BEER_DELETE_BATCH_PATH)
+  public ResponseEntity<BeerBatchDeleteResult> handleDeleteBatchPost(@RequestBody List<UUID> ids) {
+    return deleteBatch(ids);
+  }
+
+  private ResponseEntity<BeerBatchDeleteResult> deleteBatch(List<UUID> ids) {
+    if (ids.size() > BEER_BATCH_MAX_SIZE) {
+      throw new BadRequestException("At most " + BEER_BATCH_MAX_SIZE + " ids per batch");
+    }
+
+    Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+    distinctIds.remove(null);
+
+    return ResponseEntity.ok(BeerBatchDeleteResult.builder()
+        .requested(distinctIds.size())
+        .deleted(beerService.deleteByIds(distinctIds))
+        .build());
+  }
+
   @PutMapping(BEER_PATH_ID)
-  public ResponseEntity<?> updateById(@PathVariable("id") UUID beerId, @Validated @RequestBody BeerDTO beer) {
-    if (beerService.updateById(beerId, beer).isEmpty()) {
-      throw new NotFoundException();
+  public ResponseEntity<?> updateById(@PathVariable("id") UUID beerId, @Validated @RequestBody BeerDTO beer,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    Integer expectedVersion = ConditionalRequests.expectedVersion(ifMatch, beerId);
+    try {
+      return noContent(beerService.updateById(beerId, beer, expectedVersion).orElseThrow(NotFoundException::new));
+    } catch (OptimisticLockingFailureException e) {
+      throw new PreconditionFailedException(e.getMessage(), e);
     }
-    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+
+  /**
+   * The write reports the version it left the beer at, so the client gets the
+   * new ETag without having to read the beer back.
+   */
+  private static ResponseEntity<?> noContent(VersionStamp written) {
+    ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+    if (written.version() != null) {
+      response.eTag(ConditionalRequests.eTag(written.id(), written.version()));
+    }
+    return response.build();
+  }
+
+  /**
+   * Validates only the properties a patch provides, absent or blank ones are
+   * left as they are.
+   */
+  private List<Map<String, String>> validatePatch(BeerDTO beer) {
+    List<Map<String, String>> errors = new ArrayList<>();
+    for (String property : PATCHABLE_PROPERTIES) {
+      validator.validateProperty(beer, property).stream()
+          .filter(violation -> isProvided(violation.getInvalidValue()))
+          .forEach(violation -> errors.add(Map.of(property, violation.getMessage())));
+    }
+    return errors;
+  }
+
+  private static boolean isProvided(Object value) {
+    return value instanceof String string ? StringUtils.hasText(string) : value != null;
   }
 
   @PostMapping(BEER_PATH)
@@ -67,18 +205,158 @@ public class BeerController {
     return new ResponseEntity<>(headers, HttpStatus.CREATED);
   }
 
+  @PostMapping(BEER_BATCH_PATH)
+  public ResponseEntity<List<BeerBatchResult>> handleBatchPost(@RequestBody List<BeerDTO> beers) {
+    if (beers.size() > BEER_BATCH_MAX_SIZE) {
+      throw new BadRequestException("Batch exceeds " + BEER_BATCH_MAX_SIZE + " beers");
+    }
+
+    BeerBatchResult[] results = new BeerBatchResult[beers.size()];
+    List<BeerDTO> validBeers = new ArrayList<>(beers.size());
+    List<Integer> validIndexes = new ArrayList<>(beers.size());
+
+    for (int i = 0; i < beers.size(); i++) {
+      Set<ConstraintViolation<BeerDTO>> violations = validator.validate(beers.get(i));
+      if (violations.isEmpty()) {
+        validBeers.add(beers.get(i));
+        validIndexes.add(i);
+      } else {
+        Map<String, String> errors = new LinkedHashMap<>();
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        results[i] = BeerBatchResult.builder().index(i).status(BeerBatchResult.Status.INVALID).errors(errors).build();
+      }
+    }
+
+    List<BeerBatchResult> savedResults = beerService.saveOrUpdateBeers(validBeers);
+    for (int i = 0; i < savedResults.size(); i++) {
+      BeerBatchResult result = savedResults.get(i);
+      result.setIndex(validIndexes.get(i));
+      results[result.getIndex()] = result;
+    }
+
+    return ResponseEntity.ok(Arrays.asList(results));
+  }
+
   @GetMapping(BEER_PATH)
   public Page<BeerDTO> listBeers(@RequestParam(required = false) String beerName,
       @RequestParam(required = false) BeerStyle beerStyle,
       @RequestParam(required = false, defaultValue = "false") Boolean showInventory,
       @RequestParam(required = false) Integer pageNumber,
+      @RequestParam(required = false) Integer pageSize,
+      WebRequest request) {
+    Page<BeerDTO> page = beerService.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize);
+
+    String eTag = ConditionalRequests.weakETag(page.getContent(), page.getTotalElements(), BeerDTO::getId,
+        BeerDTO::getVersion);
+    if (request.checkNotModified(eTag,
+        ConditionalRequests.lastModified(page.getContent(), BeerDTO::getUpdatedDate))) {
+      return null;
+    }
+    return page;
+  }
+
+  @GetMapping(value = BEER_PATH, params = { "countMode", "!after" })
+  public Slice<BeerDTO> listBeersWithCountMode(@RequestParam(required = false) String beerName,
+      @RequestParam(required = false) BeerStyle beerStyle,
+      @RequestParam(required = false, defaultValue = "false") Boolean showInventory,
+      @RequestParam(required = false) Integer pageNumber,
+      @RequestParam(required = false) Integer pageSize,
+      @RequestParam CountMode countMode) {
+    return beerService.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize, countMode);
+  }
+
+  @GetMapping(value = BEER_PATH, params = "after")
+  public CursorPage<BeerDTO> listBeersAfter(@RequestParam(required = false) String beerName,
+      @RequestParam(required = false) BeerStyle beerStyle,
+      @RequestParam(required = false, defaultValue = "false") Boolean showInventory,
+      @RequestParam(required = false) String after,
       @RequestParam(required = false) Integer pageSize) {
-    return beerService.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize);
+    BeerCursor cursor;
+    try {
+      cursor = BeerCursor.decode(after);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor", e);
+    }
+    return beerService.listBeersAfter(beerName, beerStyle, showInventory, cursor, pageSize);
+  }
+
+  @GetMapping(BEER_EXPORT_PATH)
+  public ResponseEntity<StreamingResponseBody> exportBeers(@RequestParam(required = false) String beerName,
+      @RequestParam(required = false) BeerStyle beerStyle,
+      @RequestParam(required = false, defaultValue = "NDJSON") ExportFormat format,
+      @RequestParam(required = false, defaultValue = "false") Boolean gzip, WebRequest request) {
+
+    // an export streams for as long as the result set takes to drain, other async requests keep the default
+    WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+
+    StreamingResponseBody body = responseStream -> {
+      // closing releases the Deflater's native memory even if the export fails part way
+      try (OutputStream out = gzip ? new GZIPOutputStream(responseStream, 8192) : responseStream) {
+        if (format == ExportFormat.CSV) {
+          writeCsv(beerName, beerStyle, out);
+        } else {
+          writeNdjson(beerName, beerStyle, out);
+        }
+      }
+    };
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(format == ExportFormat.CSV ? TEXT_CSV : APPLICATION_NDJSON);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(body);
+  }
+
+  private void writeNdjson(String beerName, BeerStyle beerStyle, OutputStream out) throws IOException {
+    try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+      beerService.exportBeers(beerName, beerStyle, beer -> {
+        try {
+          writer.write(beer);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  private void writeCsv(String beerName, BeerStyle beerStyle, OutputStream out) throws IOException {
+    try (CSVWriter writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+      writer.writeNext(CSV_HEADER);
+      beerService.exportBeers(beerName, beerStyle, beer -> writer.writeNext(new String[] {
+          String.valueOf(beer.getId()),
+          String.valueOf(beer.getVersion()),
+          beer.getBeerName(),
+          String.valueOf(beer.getBeerStyle()),
+          beer.getUpc(),
+          beer.getQuantityOnHand() == null ? "" : beer.getQuantityOnHand().toString(),
+          beer.getPrice() == null ? "" : beer.getPrice().toPlainString(),
+          String.valueOf(beer.getCreatedDate()),
+          String.valueOf(beer.getUpdatedDate()) }));
+    }
+  }
+
+  @GetMapping(BEER_STATS_PATH)
+  public BeerStats getBeerStats() {
+    return beerService.getBeerStats();
   }
 
   @GetMapping(BEER_PATH_ID)
-  public BeerDTO getBeerById(@PathVariable UUID id) {
-    return beerService.getBeerById(id).orElseThrow(NotFoundException::new);
+  public BeerDTO getBeerById(@PathVariable UUID id, WebRequest request) {
+    if (ConditionalRequests.isConditional(request)) {
+      // validate against the version alone before paying for the full row
+      VersionStamp stamp = beerService.getBeerVersion(id).orElseThrow(NotFoundException::new);
+      if (request.checkNotModified(ConditionalRequests.eTag(stamp.id(), stamp.version()),
+          ConditionalRequests.lastModified(stamp.updatedDate()))) {
+        return null;
+      }
+      return beerService.getBeerById(id).orElseThrow(NotFoundException::new);
+    }
+
+    BeerDTO beer = beerService.getBeerById(id).orElseThrow(NotFoundException::new);
+    request.checkNotModified(ConditionalRequests.eTag(beer.getId(), beer.getVersion()),
+        ConditionalRequests.lastModified(beer.getUpdatedDate()));
+    return beer;
   }
 
 }
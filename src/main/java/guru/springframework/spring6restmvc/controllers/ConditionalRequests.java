@@ -0,0 +1,86 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * ETag and Last-Modified validators derived from {@code @Version} and
+ * {@code updatedDate}, so freshness can be decided without rendering a body.
+ */
+final class ConditionalRequests {
+
+  private ConditionalRequests() {
+  }
+
+  static boolean isConditional(WebRequest request) {
+    return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+        || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+  }
+
+  /**
+   * Strong validator for a single row: a new version is a new representation.
+   */
+  static String eTag(UUID id, Integer version) {
+    return "\"" + id + "-" + version + "\"";
+  }
+
+  /**
+   * Weak validator for a listing. Covers every id and version on the page plus
+   * the total, so edits, inserts and deletes that shift the page all change it.
+   */
+  static <T> String weakETag(Collection<T> items, long total, Function<T, UUID> idOf,
+      Function<T, Integer> versionOf) {
+    StringBuilder state = new StringBuilder().append(total);
+    for (T item : items) {
+      state.append('|').append(idOf.apply(item)).append(':').append(versionOf.apply(item));
+    }
+    return "W/\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+  }
+
+  /**
+   * Reads the version an {@code If-Match} header expects {@code id} to be at.
+   *
+   * @return the version, or {@code null} if the header is absent or {@code *}
+   * @throws PreconditionFailedException if the header holds anything other
+   *                                     than one of this row's strong ETags,
+   *                                     as such a header can never match
+   */
+  static Integer expectedVersion(String ifMatch, UUID id) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+
+    String prefix = "\"" + id + "-";
+    String eTag = ifMatch.trim();
+    if (eTag.startsWith(prefix) && eTag.endsWith("\"") && eTag.length() > prefix.length() + 1) {
+      try {
+        return Integer.valueOf(eTag.substring(prefix.length(), eTag.length() - 1));
+      } catch (NumberFormatException e) {
+        // fall through, cannot match
+      }
+    }
+    throw new PreconditionFailedException("If-Match does not match " + id);
+  }
+
+  static long lastModified(LocalDateTime updatedDate) {
+    return updatedDate == null ? -1 : updatedDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  static <T> long lastModified(Collection<T> items, Function<T, LocalDateTime> updatedDateOf) {
+    return items.stream()
+        .map(updatedDateOf)
+        .filter(Objects::nonNull)
+        .max(LocalDateTime::compareTo)
+        .map(ConditionalRequests::lastModified)
+        .orElse(-1L);
+  }
+}
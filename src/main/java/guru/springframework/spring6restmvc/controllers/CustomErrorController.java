@@ -5,12 +5,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import guru.springframework.spring6restmvc.services.DbBulkheadFullException;
+import guru.springframework.spring6restmvc.services.InsufficientInventoryException;
 import jakarta.validation.ConstraintViolationException;
 
 @ControllerAdvice
@@ -47,4 +51,17 @@ public class CustomErrorController {
 
     return ResponseEntity.badRequest().body(errorList);
   }
+
+  @ExceptionHandler(DbBulkheadFullException.class)
+  ResponseEntity<Void> handleBulkheadFull(final DbBulkheadFullException exception) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, exception.getRetryAfter().toSeconds())))
+        .build();
+  }
+
+  @ExceptionHandler(InsufficientInventoryException.class)
+  ResponseEntity<?> handleInsufficientInventory(final InsufficientInventoryException exception) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(List.of(Map.of("delta", "would reduce quantityOnHand below zero")));
+  }
 }
@@ -1,8 +1,8 @@
 package guru.springframework.spring6restmvc.controllers;
 
-import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,9 +14,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.CustomerCursor;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 import guru.springframework.spring6restmvc.services.CustomerService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -67,13 +72,52 @@ public class CustomerController {
   }
 
   @GetMapping(CUSTOMER_PATH)
-  public List<CustomerDTO> listCustomers() {
-    return customerService.listCustomers();
+  public Page<CustomerDTO> listCustomers(@RequestParam(required = false) String customerName,
+      @RequestParam(required = false) String email,
+      @RequestParam(required = false) Integer pageNumber,
+      @RequestParam(required = false) Integer pageSize,
+      WebRequest request) {
+    Page<CustomerDTO> page = customerService.listCustomers(customerName, email, pageNumber, pageSize);
+
+    String eTag = ConditionalRequests.weakETag(page.getContent(), page.getTotalElements(), CustomerDTO::getId,
+        CustomerDTO::getVersion);
+    if (request.checkNotModified(eTag,
+        ConditionalRequests.lastModified(page.getContent(), CustomerDTO::getUpdatedDate))) {
+      return null;
+    }
+    return page;
+  }
+
+  @GetMapping(value = CUSTOMER_PATH, params = "after")
+  public CursorPage<CustomerDTO> listCustomersAfter(@RequestParam(required = false) String customerName,
+      @RequestParam(required = false) String email,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer pageSize) {
+    CustomerCursor cursor;
+    try {
+      cursor = CustomerCursor.decode(after);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor", e);
+    }
+    return customerService.listCustomersAfter(customerName, email, cursor, pageSize);
   }
 
   @GetMapping(CUSTOMER_PATH_ID)
-  public CustomerDTO getCustomerById(@PathVariable("id") UUID id) {
+  public CustomerDTO getCustomerById(@PathVariable("id") UUID id, WebRequest request) {
     log.debug("In CustomerController -- getCustomerById");
-    return customerService.getCustomerById(id).orElseThrow(NotFoundException::new);
+
+    if (ConditionalRequests.isConditional(request)) {
+      VersionStamp stamp = customerService.getCustomerVersion(id).orElseThrow(NotFoundException::new);
+      if (request.checkNotModified(ConditionalRequests.eTag(stamp.id(), stamp.version()),
+          ConditionalRequests.lastModified(stamp.updatedDate()))) {
+        return null;
+      }
+      return customerService.getCustomerById(id).orElseThrow(NotFoundException::new);
+    }
+
+    CustomerDTO customer = customerService.getCustomerById(id).orElseThrow(NotFoundException::new);
+    request.checkNotModified(ConditionalRequests.eTag(customer.getId(), customer.getVersion()),
+        ConditionalRequests.lastModified(customer.getUpdatedDate()));
+    return customer;
   }
 }
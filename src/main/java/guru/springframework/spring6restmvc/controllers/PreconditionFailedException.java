@@ -0,0 +1,23 @@
+package guru.springframework.spring6restmvc.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED, reason = "Precondition Failed")
+public class PreconditionFailedException extends RuntimeException {
+
+  public PreconditionFailedException() {
+  }
+
+  public PreconditionFailedException(String message) {
+    super(message);
+  }
+
+  public PreconditionFailedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public PreconditionFailedException(Throwable cause) {
+    super(cause);
+  }
+}
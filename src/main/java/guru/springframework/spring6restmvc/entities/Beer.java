@@ -11,10 +11,14 @@ import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerListing;
 import jakarta.persistence.Column;
+import jakarta.persistence.ColumnResult;
+import jakarta.persistence.ConstructorResult;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.SqlResultSetMapping;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -29,13 +33,34 @@ import lombok.NoArgsConstructor;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+@SqlResultSetMapping(name = BeerListing.WITH_INVENTORY_MAPPING, classes = @ConstructorResult(
+    targetClass = BeerListing.WithInventory.class, columns = {
+        @ColumnResult(name = "id", type = UUID.class),
+        @ColumnResult(name = "version", type = Integer.class),
+        @ColumnResult(name = "beer_name", type = String.class),
+        @ColumnResult(name = "beer_style", type = BeerStyle.class),
+        @ColumnResult(name = "upc", type = String.class),
+        @ColumnResult(name = "quantity_on_hand", type = Integer.class),
+        @ColumnResult(name = "price", type = BigDecimal.class),
+        @ColumnResult(name = "created_date", type = LocalDateTime.class),
+        @ColumnResult(name = "updated_date", type = LocalDateTime.class)}))
+@SqlResultSetMapping(name = BeerListing.WITHOUT_INVENTORY_MAPPING, classes = @ConstructorResult(
+    targetClass = BeerListing.WithoutInventory.class, columns = {
+        @ColumnResult(name = "id", type = UUID.class),
+        @ColumnResult(name = "version", type = Integer.class),
+        @ColumnResult(name = "beer_name", type = String.class),
+        @ColumnResult(name = "beer_style", type = BeerStyle.class),
+        @ColumnResult(name = "upc", type = String.class),
+        @ColumnResult(name = "price", type = BigDecimal.class),
+        @ColumnResult(name = "created_date", type = LocalDateTime.class),
+        @ColumnResult(name = "updated_date", type = LocalDateTime.class)}))
 public class Beer {
 
   @Id
   @GeneratedValue(generator = "UUID")
-  @UuidGenerator
-  @JdbcTypeCode(SqlTypes.CHAR)
-  @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+  @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+  @JdbcTypeCode(SqlTypes.UUID)
+  @Column(updatable = false, nullable = false)
   private UUID id;
 
   @Version
@@ -30,9 +30,9 @@ public class Customer {
 
   @Id
   @GeneratedValue(generator = "UUID")
-  @UuidGenerator
-  @JdbcTypeCode(SqlTypes.CHAR)
-  @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+  @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+  @JdbcTypeCode(SqlTypes.UUID)
+  @Column(updatable = false, nullable = false)
   private UUID id;
 
   @Column(length = 255)
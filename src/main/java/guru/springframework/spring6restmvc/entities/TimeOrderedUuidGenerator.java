@@ -0,0 +1,39 @@
+package guru.springframework.spring6restmvc.entities;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+/**
+ * Generates RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp
+ * followed by a 12-bit per-millisecond counter and 62 random bits.
+ * Consecutive ids therefore sort in insertion order, both as strings and as
+ * big-endian {@code BINARY(16)}, keeping clustered index inserts append-only.
+ */
+public class TimeOrderedUuidGenerator implements UuidValueGenerator {
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  // (unix millis << 12) | counter of the last id handed out
+  private static final AtomicLong LAST_STAMP = new AtomicLong();
+
+  @Override
+  public UUID generateUuid(SharedSessionContractImplementor session) {
+    return next();
+  }
+
+  public static UUID next() {
+    long candidate = System.currentTimeMillis() << 12;
+    long stamp = LAST_STAMP.updateAndGet(last -> candidate > last ? candidate : last + 1);
+
+    long mostSigBits = ((stamp >>> 12) & 0xFFFF_FFFF_FFFFL) << 16
+        | 0x7000L
+        | (stamp & 0xFFFL);
+    long leastSigBits = (RANDOM.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+
+    return new UUID(mostSigBits, leastSigBits);
+  }
+}
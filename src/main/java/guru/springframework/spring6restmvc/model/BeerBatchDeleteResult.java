@@ -0,0 +1,15 @@
+package guru.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BeerBatchDeleteResult {
+
+  /**
+   * Distinct ids in the request.
+   */
+  private int requested;
+  private int deleted;
+}
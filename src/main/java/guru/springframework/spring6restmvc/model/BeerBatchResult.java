@@ -0,0 +1,21 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BeerBatchResult {
+
+  public enum Status {
+    CREATED, UPDATED, INVALID
+  }
+
+  private int index;
+  private UUID id;
+  private Status status;
+  private Map<String, String> errors;
+}
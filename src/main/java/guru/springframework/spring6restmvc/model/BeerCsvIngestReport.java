@@ -0,0 +1,34 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BeerCsvIngestReport {
+
+  @Data
+  @Builder
+  public static class StageStats {
+    private String stage;
+    private int threads;
+    private long items;
+    private long busyMillis;
+
+    /**
+     * Items per second of busy time, summed over the stage's threads.
+     */
+    public long getItemsPerSecond() {
+      return busyMillis == 0 ? items : items * 1000 * threads / busyMillis;
+    }
+  }
+
+  private long imported;
+  private long rejected;
+  /** Rows left alone because a beer with their UPC was already stored. */
+  private long skipped;
+  private long elapsedMillis;
+  private List<StageStats> stages;
+}
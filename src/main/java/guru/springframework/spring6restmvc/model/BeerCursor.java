@@ -0,0 +1,39 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Keyset position in the beer listing, ordered by {@code (beerName, id)}.
+ * Serialized as an opaque URL-safe token so clients never depend on its shape.
+ */
+public record BeerCursor(String beerName, UUID id) {
+
+  private static final char SEPARATOR = '\n';
+
+  public String encode() {
+    String raw = id + String.valueOf(SEPARATOR) + beerName;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return the decoded cursor, or {@code null} for a blank token (first page)
+   * @throws IllegalArgumentException if the token is malformed
+   */
+  public static BeerCursor decode(String token) {
+    if (!StringUtils.hasText(token)) {
+      return null;
+    }
+
+    String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    int separator = raw.indexOf(SEPARATOR);
+    if (separator < 0) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+
+    return new BeerCursor(raw.substring(separator + 1), UUID.fromString(raw.substring(0, separator)));
+  }
+}
@@ -6,6 +6,7 @@ import java.util.UUID;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Data;
 
@@ -18,6 +19,7 @@ public class BeerDTO {
 
   @NotNull
   @NotBlank
+  @Size(max = 50)
   private String beerName;
 
   @NotNull
@@ -0,0 +1,10 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The columns of a beer that feed the catalog statistics.
+ */
+public record BeerFigures(UUID id, BeerStyle beerStyle, BigDecimal price, Integer quantityOnHand) {
+}
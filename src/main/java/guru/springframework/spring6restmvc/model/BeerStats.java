@@ -0,0 +1,30 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BeerStats {
+
+  @Data
+  @Builder
+  public static class StyleStats {
+    private BeerStyle beerStyle;
+    private long beers;
+    private long quantityOnHand;
+    private BigDecimal minPrice;
+    private BigDecimal avgPrice;
+    private BigDecimal maxPrice;
+  }
+
+  private long beers;
+  private long quantityOnHand;
+  private BigDecimal minPrice;
+  private BigDecimal avgPrice;
+  private BigDecimal maxPrice;
+  private List<StyleStats> styles;
+}
@@ -0,0 +1,10 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.math.BigDecimal;
+
+/**
+ * SQL aggregates of one style's beers, used to rebuild the catalog statistics.
+ */
+public record BeerStyleTotals(BeerStyle beerStyle, Long beers, Long quantityOnHand, BigDecimal priceSum,
+    BigDecimal minPrice, BigDecimal maxPrice) {
+}
@@ -0,0 +1,13 @@
+package guru.springframework.spring6restmvc.model;
+
+/**
+ * How a paged listing should determine its total element count.
+ */
+public enum CountMode {
+  /** Run a {@code COUNT(*)} matching the listing query on every request. */
+  EXACT,
+  /** Skip counting; fetch one extra row to decide whether a next page exists. */
+  NONE,
+  /** Report a periodically refreshed cached count instead of counting per request. */
+  APPROXIMATE
+}
@@ -0,0 +1,20 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CursorPage<T> {
+
+  private List<T> content;
+  private int size;
+
+  /**
+   * Opaque token to pass as {@code after} to fetch the next page, or
+   * {@code null} once the last page has been reached.
+   */
+  private String nextCursor;
+}
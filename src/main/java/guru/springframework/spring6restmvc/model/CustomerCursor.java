@@ -0,0 +1,39 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Keyset position in the customer listing, ordered by {@code (customerName, id)}.
+ * Encoded the same way as {@link BeerCursor}.
+ */
+public record CustomerCursor(String customerName, UUID id) {
+
+  private static final char SEPARATOR = '\n';
+
+  public String encode() {
+    String raw = id + String.valueOf(SEPARATOR) + customerName;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return the decoded cursor, or {@code null} for a blank token (first page)
+   * @throws IllegalArgumentException if the token is malformed
+   */
+  public static CustomerCursor decode(String token) {
+    if (!StringUtils.hasText(token)) {
+      return null;
+    }
+
+    String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    int separator = raw.indexOf(SEPARATOR);
+    if (separator < 0) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+
+    return new CustomerCursor(raw.substring(separator + 1), UUID.fromString(raw.substring(0, separator)));
+  }
+}
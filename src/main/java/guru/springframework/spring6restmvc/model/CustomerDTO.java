@@ -14,6 +14,7 @@ public class CustomerDTO {
 
   private UUID id;
   private Integer version;
+  private String email;
 
   @NotNull
   @NotBlank
@@ -0,0 +1,22 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class InventoryAdjustment {
+
+  private UUID beerId;
+  private int delta;
+
+  /**
+   * {@code true} if the delta was handed to the coalescer and will be applied
+   * on its next flush; {@code quantityOnHand} and {@code version} are then unset.
+   */
+  private boolean queued;
+  private Integer quantityOnHand;
+  private Integer version;
+}
@@ -0,0 +1,10 @@
+package guru.springframework.spring6restmvc.model;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request body of an inventory adjustment: units received (positive) or sold
+ * (negative).
+ */
+public record InventoryDelta(@NotNull Integer delta) {
+}
@@ -0,0 +1,9 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.util.UUID;
+
+/**
+ * A beer's stock after an inventory adjustment.
+ */
+public record InventoryLevel(UUID id, Integer version, BeerStyle beerStyle, Integer quantityOnHand) {
+}
@@ -0,0 +1,10 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Just enough of a row to validate a client's cached copy of it.
+ */
+public record VersionStamp(UUID id, Integer version, LocalDateTime updatedDate) {
+}
@@ -0,0 +1,75 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+
+/**
+ * Column projections for beer listings. Queries returning these select only
+ * the listed columns into a constructor expression, so no managed
+ * {@code Beer} is hydrated or snapshotted for dirty checking.
+ */
+public sealed interface BeerListing {
+
+  // native queries map their rows through these, declared on the Beer entity
+  String WITH_INVENTORY_MAPPING = "BeerListing.WithInventory";
+  String WITHOUT_INVENTORY_MAPPING = "BeerListing.WithoutInventory";
+
+  UUID id();
+
+  String beerName();
+
+  BeerDTO toBeerDTO();
+
+  static Class<? extends BeerListing> type(Boolean showInventory) {
+    return showInventory != null && !showInventory ? WithoutInventory.class : WithInventory.class;
+  }
+
+  static String mappingOf(Class<? extends BeerListing> type) {
+    return type == WithoutInventory.class ? WITHOUT_INVENTORY_MAPPING : WITH_INVENTORY_MAPPING;
+  }
+
+  record WithInventory(UUID id, Integer version, String beerName, BeerStyle beerStyle, String upc,
+      Integer quantityOnHand, BigDecimal price, LocalDateTime createdDate, LocalDateTime updatedDate)
+      implements BeerListing {
+
+    @Override
+    public BeerDTO toBeerDTO() {
+      return BeerDTO.builder()
+          .id(id)
+          .version(version)
+          .beerName(beerName)
+          .beerStyle(beerStyle)
+          .upc(upc)
+          .quantityOnHand(quantityOnHand)
+          .price(price)
+          .createdDate(createdDate)
+          .updatedDate(updatedDate)
+          .build();
+    }
+  }
+
+  /**
+   * Leaves {@code quantity_on_hand} out of the select list entirely.
+   */
+  record WithoutInventory(UUID id, Integer version, String beerName, BeerStyle beerStyle, String upc,
+      BigDecimal price, LocalDateTime createdDate, LocalDateTime updatedDate) implements BeerListing {
+
+    @Override
+    public BeerDTO toBeerDTO() {
+      return BeerDTO.builder()
+          .id(id)
+          .version(version)
+          .beerName(beerName)
+          .beerStyle(beerStyle)
+          .upc(upc)
+          .price(price)
+          .createdDate(createdDate)
+          .updatedDate(updatedDate)
+          .build();
+    }
+  }
+}
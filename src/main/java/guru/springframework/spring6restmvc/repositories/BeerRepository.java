@@ -1,19 +1,134 @@
 package guru.springframework.spring6restmvc.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerFigures;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.BeerStyleTotals;
+import guru.springframework.spring6restmvc.model.InventoryLevel;
+import guru.springframework.spring6restmvc.model.VersionStamp;
+import jakarta.persistence.QueryHint;
 
-public interface BeerRepository extends JpaRepository<Beer, UUID> {
+public interface BeerRepository extends JpaRepository<Beer, UUID>, BeerSearchRepository {
   Page<Beer> findAllByBeerNameIsLikeIgnoreCase(String beerName, Pageable pageable);
 
   Page<Beer> findAllByBeerStyle(BeerStyle beerStyle, Pageable pageable);
 
   Page<Beer> findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle, Pageable pageable);
+
+  List<Beer> findAllByUpcIn(Collection<String> upcs);
+
+  @Query("select b.upc from Beer b where b.upc in :upcs")
+  Set<String> findUpcsByUpcIn(Collection<String> upcs);
+
+  Optional<VersionStamp> findVersionById(UUID id);
+
+  // single statement deletes; the inherited deleteById loads the entity first
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Beer b where b.id = :id")
+  int deleteRowById(@Param("id") UUID id);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Beer b where b.id in :ids")
+  int deleteRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * Adds {@code delta} to the quantity on hand in place, so concurrent
+   * adjustments never conflict on {@code @Version}; the version is still
+   * bumped so cached copies and ETags are invalidated.
+   *
+   * @return 0 if there is no such beer or the quantity would drop below zero
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Beer b set b.quantityOnHand = coalesce(b.quantityOnHand, 0) + :delta, "
+      + "b.version = coalesce(b.version, 0) + 1, b.updatedDate = :updatedDate "
+      + "where b.id = :id and coalesce(b.quantityOnHand, 0) + :delta >= 0")
+  int addToQuantityOnHand(@Param("id") UUID id, @Param("delta") int delta,
+      @Param("updatedDate") LocalDateTime updatedDate);
+
+  Optional<InventoryLevel> findInventoryLevelById(UUID id);
+
+  // inputs of the catalog statistics, see BeerCatalogStats
+
+  List<BeerFigures> findFiguresByIdIn(Collection<UUID> ids);
+
+  @Query("select new guru.springframework.spring6restmvc.model.BeerStyleTotals(b.beerStyle, count(b), "
+      + "sum(coalesce(b.quantityOnHand, 0)), sum(b.price), min(b.price), max(b.price)) "
+      + "from Beer b group by b.beerStyle")
+  List<BeerStyleTotals> sumByBeerStyle();
+
+  /**
+   * Forward-only, read-only stream over every matching beer for exports. Null
+   * filters match everything. Must be consumed, and closed, inside a transaction.
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+  })
+  @Query("select b from Beer b where (:beerName is null or lower(b.beerName) like lower(:beerName)) "
+      + "and (:beerStyle is null or b.beerStyle = :beerStyle) order by b.beerName, b.id")
+  Stream<Beer> streamAllForExport(@Param("beerName") String beerName, @Param("beerStyle") BeerStyle beerStyle);
+
+  // column projections of the listings above, see BeerListing
+
+  <T> Page<T> findPageBy(Pageable pageable, Class<T> type);
+
+  <T> Page<T> findAllByBeerNameIsLikeIgnoreCase(String beerName, Pageable pageable, Class<T> type);
+
+  <T> Page<T> findAllByBeerStyle(BeerStyle beerStyle, Pageable pageable, Class<T> type);
+
+  <T> Page<T> findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle, Pageable pageable,
+      Class<T> type);
+
+  // count-free variants: Slice fetches pageSize + 1 rows instead of issuing a COUNT query
+
+  <T> Slice<T> findSliceBy(Pageable pageable, Class<T> type);
+
+  <T> Slice<T> findSliceByBeerNameIsLikeIgnoreCase(String beerName, Pageable pageable, Class<T> type);
+
+  <T> Slice<T> findSliceByBeerStyle(BeerStyle beerStyle, Pageable pageable, Class<T> type);
+
+  <T> Slice<T> findSliceByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle,
+      Pageable pageable, Class<T> type);
+
+  long countByBeerNameIsLikeIgnoreCase(String beerName);
+
+  long countByBeerStyle(BeerStyle beerStyle);
+
+  long countByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle);
+
+  // keyset (seek) variants of the listings above, ordered by (beerName, id)
+
+  <T> Window<T> findAllByOrderByBeerNameAscIdAsc(ScrollPosition position, Limit limit, Class<T> type);
+
+  <T> Window<T> findAllByBeerNameIsLikeIgnoreCaseOrderByBeerNameAscIdAsc(String beerName, ScrollPosition position,
+      Limit limit, Class<T> type);
+
+  <T> Window<T> findAllByBeerStyleOrderByBeerNameAscIdAsc(BeerStyle beerStyle, ScrollPosition position, Limit limit,
+      Class<T> type);
+
+  <T> Window<T> findAllByBeerNameIsLikeIgnoreCaseAndBeerStyleOrderByBeerNameAscIdAsc(String beerName,
+      BeerStyle beerStyle, ScrollPosition position, Limit limit, Class<T> type);
 }
@@ -0,0 +1,39 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+
+import guru.springframework.spring6restmvc.model.BeerStyle;
+
+/**
+ * Beer name searches backed by the MySQL ngram FULLTEXT index (see V3
+ * migration), a boolean mode {@code MATCH ... AGAINST} that JPQL can't
+ * express. Like the derived listing queries they select only the columns of
+ * the requested {@link BeerListing} type. A null style matches every style.
+ */
+public interface BeerSearchRepository {
+
+  /**
+   * Matches ranked by relevance, then by name.
+   */
+  <T extends BeerListing> Page<T> searchByBeerName(String query, BeerStyle beerStyle, Pageable pageable,
+      Class<T> type);
+
+  /**
+   * The matches of {@link #searchByBeerName}, fetching one row more instead of counting them.
+   */
+  <T extends BeerListing> Slice<T> searchSliceByBeerName(String query, BeerStyle beerStyle, Pageable pageable,
+      Class<T> type);
+
+  long countSearchByBeerName(String query, BeerStyle beerStyle);
+
+  /**
+   * Matches in name and id order, after a keyset position on those two.
+   */
+  <T extends BeerListing> Window<T> searchByBeerNameOrderByBeerNameAscIdAsc(String query, BeerStyle beerStyle,
+      ScrollPosition position, Limit limit, Class<T> type);
+}
@@ -0,0 +1,103 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class BeerSearchRepositoryImpl implements BeerSearchRepository {
+
+  private static final String MATCH = "match(beer_name) against (:query in boolean mode)";
+
+  private final EntityManager entityManager;
+
+  @Override
+  public <T extends BeerListing> Page<T> searchByBeerName(String query, BeerStyle beerStyle, Pageable pageable,
+      Class<T> type) {
+    List<T> content = ranked(query, beerStyle, pageable, pageable.getPageSize(), type);
+    return PageableExecutionUtils.getPage(content, pageable, () -> countSearchByBeerName(query, beerStyle));
+  }
+
+  @Override
+  public <T extends BeerListing> Slice<T> searchSliceByBeerName(String query, BeerStyle beerStyle,
+      Pageable pageable, Class<T> type) {
+    List<T> rows = ranked(query, beerStyle, pageable, pageable.getPageSize() + 1, type);
+    boolean hasNext = rows.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+  }
+
+  @Override
+  public long countSearchByBeerName(String query, BeerStyle beerStyle) {
+    Query count = entityManager.createNativeQuery("select count(*) from beer where " + where(beerStyle));
+    bind(count, query, beerStyle);
+    return ((Number) count.getSingleResult()).longValue();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends BeerListing> Window<T> searchByBeerNameOrderByBeerNameAscIdAsc(String query,
+      BeerStyle beerStyle, ScrollPosition position, Limit limit, Class<T> type) {
+    if (!(position instanceof KeysetScrollPosition keyset) || !keyset.scrollsForward()) {
+      throw new IllegalArgumentException("Only forward keyset positions are supported, got " + position);
+    }
+
+    Map<String, Object> after = keyset.getKeys();
+    Query search = entityManager.createNativeQuery(select(type) + " where " + where(beerStyle)
+        + (after.isEmpty() ? "" : " and (beer_name > :afterName or (beer_name = :afterName and id > :afterId))")
+        + " order by beer_name, id", BeerListing.mappingOf(type));
+    bind(search, query, beerStyle);
+    if (!after.isEmpty()) {
+      search.setParameter("afterName", after.get("beerName"));
+      search.setParameter("afterId", after.get("id"));
+    }
+    search.setMaxResults(limit.max() + 1);
+
+    List<T> rows = search.getResultList();
+    boolean hasNext = rows.size() > limit.max();
+    List<T> content = hasNext ? rows.subList(0, limit.max()) : rows;
+    return Window.from(content, index -> ScrollPosition.forward(
+        Map.of("beerName", content.get(index).beerName(), "id", content.get(index).id())), hasNext);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends BeerListing> List<T> ranked(String query, BeerStyle beerStyle, Pageable pageable, int rows,
+      Class<T> type) {
+    Query search = entityManager.createNativeQuery(select(type) + " where " + where(beerStyle)
+        + " order by " + MATCH + " desc, beer_name, id", BeerListing.mappingOf(type));
+    bind(search, query, beerStyle);
+    search.setFirstResult((int) pageable.getOffset());
+    search.setMaxResults(rows);
+    return search.getResultList();
+  }
+
+  private static String select(Class<? extends BeerListing> type) {
+    return "select id, version, beer_name, beer_style, upc, "
+        + (type == BeerListing.WithInventory.class ? "quantity_on_hand, " : "")
+        + "price, created_date, updated_date from beer";
+  }
+
+  private static String where(BeerStyle beerStyle) {
+    return MATCH + (beerStyle != null ? " and beer_style = :beerStyle" : "");
+  }
+
+  private static void bind(Query search, String query, BeerStyle beerStyle) {
+    search.setParameter("query", query);
+    if (beerStyle != null) {
+      search.setParameter("beerStyle", beerStyle.ordinal());
+    }
+  }
+}
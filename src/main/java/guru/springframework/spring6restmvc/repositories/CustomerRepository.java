@@ -1,11 +1,49 @@
 package guru.springframework.spring6restmvc.repositories;
 
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
 
+  // email filters are prefix matches so they can use ix_customer_email (see V5 migration)
+
+  Page<Customer> findAllByCustomerNameIsLikeIgnoreCase(String customerName, Pageable pageable);
+
+  Page<Customer> findAllByEmailStartingWith(String email, Pageable pageable);
+
+  Page<Customer> findAllByCustomerNameIsLikeIgnoreCaseAndEmailStartingWith(String customerName, String email,
+      Pageable pageable);
+
+  // keyset (seek) variants of the listings above, ordered by (customerName, id)
+
+  Window<Customer> findAllByOrderByCustomerNameAscIdAsc(ScrollPosition position, Limit limit);
+
+  Window<Customer> findAllByCustomerNameIsLikeIgnoreCaseOrderByCustomerNameAscIdAsc(String customerName,
+      ScrollPosition position, Limit limit);
+
+  Window<Customer> findAllByEmailStartingWithOrderByCustomerNameAscIdAsc(String email, ScrollPosition position,
+      Limit limit);
+
+  Window<Customer> findAllByCustomerNameIsLikeIgnoreCaseAndEmailStartingWithOrderByCustomerNameAscIdAsc(
+      String customerName, String email, ScrollPosition position, Limit limit);
+
+  Optional<VersionStamp> findVersionById(UUID id);
+
+  // single statement delete; the inherited deleteById loads the entity first
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Customer c where c.id = :id")
+  int deleteRowById(@Param("id") UUID id);
 }
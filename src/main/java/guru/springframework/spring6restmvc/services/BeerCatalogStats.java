@@ -0,0 +1,180 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import guru.springframework.spring6restmvc.model.BeerFigures;
+import guru.springframework.spring6restmvc.model.BeerStats;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-style catalog statistics for {@link BeerServiceJPA}, answered from a
+ * {@link BeerStatsAccumulator} instead of aggregate queries.
+ * <p>
+ * The aggregates are loaded once the application is ready and then follow the
+ * service's writes, each applied when its transaction commits. Writes that
+ * bypass the service (the CSV ingest, bootstrap data) or race on the same row
+ * make them drift, so they are periodically reconciled against a single
+ * {@code GROUP BY} query; removing a style's cheapest or dearest beer, or a
+ * write whose old figures the service doesn't know, brings that
+ * reconciliation forward. Writes committed while the query runs are
+ * replayed onto its result rather than lost.
+ * <p>
+ * Until the first load succeeds the aggregates are all zero; a failed load is
+ * retried with a doubling delay.
+ */
+@Slf4j
+@Component
+public class BeerCatalogStats implements DisposableBean {
+
+  private static final Duration FIRST_LOAD_BACKOFF = Duration.ofSeconds(1);
+  private static final Duration MAX_FIRST_LOAD_BACKOFF = Duration.ofMinutes(1);
+
+  private final BeerRepository beerRepository;
+  private final BeerStatsAccumulator accumulator = new BeerStatsAccumulator();
+  private final ScheduledExecutorService reconciler;
+  private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+  private final Duration reconcileDelay;
+  private volatile boolean loaded;
+
+  public BeerCatalogStats(BeerRepository beerRepository,
+      @Value("${app.beer.stats.reconcile-interval:5m}") Duration reconcileInterval,
+      @Value("${app.beer.stats.reconcile-delay:1s}") Duration reconcileDelay) {
+    this.beerRepository = beerRepository;
+    this.reconcileDelay = reconcileDelay;
+    this.reconciler = new ScheduledThreadPoolExecutor(1, Thread.ofVirtual().name("beer-stats").factory());
+
+    if (!reconcileInterval.isZero()) {
+      this.reconciler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileInterval.toMillis(),
+          reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    reconciler.execute(() -> load(FIRST_LOAD_BACKOFF));
+  }
+
+  private void load(Duration backoff) {
+    if (!loaded && !reconcileQuietly()) {
+      Duration next = backoff.multipliedBy(2);
+      reconciler.schedule(() -> load(next.compareTo(MAX_FIRST_LOAD_BACKOFF) < 0 ? next : MAX_FIRST_LOAD_BACKOFF),
+          backoff.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public BeerStats snapshot() {
+    return accumulator.snapshot();
+  }
+
+  /**
+   * Records beers removed and added by the current transaction, or right away
+   * if there is none. An update is the removal of its old figures and the
+   * addition of its new ones.
+   */
+  public void changed(Collection<BeerFigures> removed, Collection<BeerFigures> added) {
+    if (removed.isEmpty() && added.isEmpty()) {
+      return;
+    }
+    afterCommit(() -> {
+      removed.forEach(beer -> accumulator.remove(beer.beerStyle(), beer.price(), beer.quantityOnHand()));
+      added.forEach(beer -> accumulator.add(beer.beerStyle(), beer.price(), beer.quantityOnHand()));
+      if (!removed.isEmpty() && accumulator.hasStaleExtremes()) {
+        requestReconcile();
+      }
+    });
+  }
+
+  public void changed(BeerFigures removed, BeerFigures added) {
+    changed(removed == null ? List.of() : List.of(removed), added == null ? List.of() : List.of(added));
+  }
+
+  /**
+   * Records a write of the current transaction whose old figures are unknown;
+   * reading them would cost the write a SELECT, so the aggregates are
+   * reconciled once it commits instead.
+   */
+  public void changedUntracked() {
+    afterCommit(this::requestReconcile);
+  }
+
+  public void quantityAdjusted(BeerStyle beerStyle, long delta) {
+    afterCommit(() -> accumulator.addQuantity(beerStyle, delta));
+  }
+
+  /**
+   * Reloads the aggregates from the database, keeping the writes recorded
+   * while it runs.
+   */
+  public synchronized void reconcile() {
+    accumulator.beginReplace();
+    try {
+      accumulator.replace(beerRepository.sumByBeerStyle());
+    } catch (RuntimeException e) {
+      accumulator.abortReplace();
+      throw e;
+    }
+    loaded = true;
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Reconciles on the background thread after {@code reconcile-delay}; requests
+   * made before it starts are served by the same run, so a burst of writes
+   * costs one query.
+   */
+  public void requestReconcile() {
+    if (reconcileRequested.compareAndSet(false, true)) {
+      reconciler.schedule(() -> {
+        reconcileRequested.set(false);
+        reconcileQuietly();
+      }, reconcileDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private boolean reconcileQuietly() {
+    try {
+      reconcile();
+      return true;
+    } catch (RuntimeException e) {
+      log.warn("Beer stats reconciliation failed", e);
+      return false;
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    reconciler.shutdownNow();
+  }
+}
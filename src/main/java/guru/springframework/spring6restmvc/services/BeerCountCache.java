@@ -0,0 +1,49 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caches listing counts per filter combination so approximate totals can be
+ * served without issuing a {@code COUNT(*)} on every request.
+ * <p>
+ * Keys include the free-text beer name, so the cache is bounded and entries
+ * are dropped once they expire rather than accumulating forever.
+ */
+@Component
+public class BeerCountCache {
+
+  private final Cache<String, Long> counts;
+
+  public BeerCountCache(@Value("${app.beer.count-cache.ttl:60s}") Duration ttl,
+      @Value("${app.beer.count-cache.maximum-size:1000}") long maximumSize) {
+    this.counts = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  public long get(String key, LongSupplier counter) {
+    Long count = counts.getIfPresent(key);
+    if (count == null) {
+      // counted outside the cache's lock, a slow COUNT(*) must not block other keys
+      count = counter.getAsLong();
+      counts.put(key, count);
+    }
+    return count;
+  }
+
+  public void clear() {
+    counts.invalidateAll();
+  }
+
+  Cache<String, Long> nativeCache() {
+    return counts;
+  }
+}
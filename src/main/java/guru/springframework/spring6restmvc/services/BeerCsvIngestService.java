@@ -0,0 +1,21 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.io.Reader;
+
+import guru.springframework.spring6restmvc.model.BeerCsvIngestReport;
+
+public interface BeerCsvIngestService {
+
+  /**
+   * Parses, maps and saves every beer in the CSV, committing in chunks.
+   * The reader is closed once parsing completes.
+   */
+  BeerCsvIngestReport ingest(Reader csvReader);
+
+  /**
+   * Like {@link #ingest(Reader)}, optionally skipping rows whose UPC is
+   * already stored, so an interrupted ingest of the same file can simply be
+   * run again.
+   */
+  BeerCsvIngestReport ingest(Reader csvReader, boolean skipExisting);
+}
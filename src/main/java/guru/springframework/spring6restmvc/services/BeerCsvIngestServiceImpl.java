@@ -0,0 +1,300 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerCsvIngestReport;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Three stage ingest pipeline running on virtual threads:
+ * <ol>
+ * <li>a parser streaming {@link BeerCSVRecord}s off the reader,</li>
+ * <li>a mapper converting and validating records and grouping them into chunks,</li>
+ * <li>N writers each saving one chunk per transaction.</li>
+ * </ol>
+ * Stages are connected by bounded queues, so a slow writer stage blocks the
+ * parser instead of buffering the file. Writers are capped below the
+ * connection pool size to leave a connection for the rest of the application.
+ */
+@Slf4j
+@Service
+public class BeerCsvIngestServiceImpl implements BeerCsvIngestService {
+
+  private static final BeerCSVRecord END_OF_RECORDS = new BeerCSVRecord();
+  private static final List<Beer> END_OF_CHUNKS = List.of();
+
+  private final BeerCsvService beerCsvService;
+  private final BeerRepository beerRepository;
+  private final BeerCatalogStats beerCatalogStats;
+  private final Validator validator;
+  private final TransactionTemplate transactionTemplate;
+  private final int writers;
+  private final int chunkSize;
+  private final int queueCapacity;
+
+  public BeerCsvIngestServiceImpl(BeerCsvService beerCsvService, BeerRepository beerRepository,
+      BeerCatalogStats beerCatalogStats, ObjectProvider<Validator> validator, PlatformTransactionManager transactionManager, DataSource dataSource,
+      @Value("${app.csv-ingest.writers:0}") int writers,
+      @Value("${app.csv-ingest.chunk-size:500}") int chunkSize,
+      @Value("${app.csv-ingest.queue-capacity:4096}") int queueCapacity) {
+    this.beerCsvService = beerCsvService;
+    this.beerRepository = beerRepository;
+    this.beerCatalogStats = beerCatalogStats;
+    this.validator = validator.getIfAvailable(() -> Validation.buildDefaultValidatorFactory().getValidator());
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.writers = resolveWriters(writers, dataSource);
+    this.chunkSize = chunkSize;
+    this.queueCapacity = queueCapacity;
+  }
+
+  private static int resolveWriters(int configured, DataSource dataSource) {
+    int writers = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+    writers = Math.min(writers, DbBulkhead.maximumPoolSize(dataSource, writers + 1) - 1);
+    return Math.max(1, writers);
+  }
+
+  @Override
+  public BeerCsvIngestReport ingest(Reader csvReader) {
+    return ingest(csvReader, false);
+  }
+
+  @Override
+  public BeerCsvIngestReport ingest(Reader csvReader, boolean skipExisting) {
+    BlockingQueue<BeerCSVRecord> records = new ArrayBlockingQueue<>(queueCapacity);
+    BlockingQueue<List<Beer>> chunks = new ArrayBlockingQueue<>(writers * 2);
+
+    Stage parser = new Stage("parse", 1);
+    Stage mapper = new Stage("map", 1);
+    Stage writer = new Stage("write", writers);
+    AtomicLong rejected = new AtomicLong();
+    AtomicLong skipped = new AtomicLong();
+    long started = System.nanoTime();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+      List<Future<Void>> futures = new ArrayList<>();
+
+      futures.add(completion.submit(() -> parser.run(() -> parse(csvReader, records, parser)), null));
+      futures.add(completion.submit(() -> mapper.run(() -> map(records, chunks, mapper, rejected)), null));
+      for (int i = 0; i < writers; i++) {
+        futures.add(completion.submit(() -> writer.run(() -> write(chunks, writer, skipExisting, skipped)), null));
+      }
+
+      awaitAll(completion, futures);
+    } finally {
+      // the writers save straight through the repository
+      beerCatalogStats.requestReconcile();
+    }
+
+    BeerCsvIngestReport report = BeerCsvIngestReport.builder()
+        .imported(writer.items.get())
+        .rejected(rejected.get())
+        .skipped(skipped.get())
+        .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+        .stages(List.of(parser.stats(), mapper.stats(), writer.stats()))
+        .build();
+
+    log.info("CSV ingest imported {} beers, rejected {} rows, skipped {} existing in {} ms", report.getImported(),
+        report.getRejected(), report.getSkipped(), report.getElapsedMillis());
+    return report;
+  }
+
+  private void parse(Reader csvReader, BlockingQueue<BeerCSVRecord> records, Stage stage) {
+    try (Stream<BeerCSVRecord> parsed = beerCsvService.streamCSV(csvReader)) {
+      parsed.forEach(record -> {
+        stage.items.incrementAndGet();
+        stage.put(records, record);
+      });
+    } finally {
+      stage.put(records, END_OF_RECORDS);
+    }
+  }
+
+  private void map(BlockingQueue<BeerCSVRecord> records, BlockingQueue<List<Beer>> chunks, Stage stage,
+      AtomicLong rejected) {
+    List<Beer> chunk = new ArrayList<>(chunkSize);
+
+    try {
+      BeerCSVRecord record;
+      while ((record = stage.take(records)) != END_OF_RECORDS) {
+        Beer beer = toBeer(record);
+        if (beer == null) {
+          rejected.incrementAndGet();
+          continue;
+        }
+
+        stage.items.incrementAndGet();
+        chunk.add(beer);
+        if (chunk.size() == chunkSize) {
+          stage.put(chunks, chunk);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+
+      if (!chunk.isEmpty()) {
+        stage.put(chunks, chunk);
+      }
+    } finally {
+      for (int i = 0; i < writers; i++) {
+        stage.put(chunks, END_OF_CHUNKS);
+      }
+    }
+  }
+
+  private void write(BlockingQueue<List<Beer>> chunks, Stage stage, boolean skipExisting, AtomicLong skipped) {
+    List<Beer> chunk;
+    while ((chunk = stage.take(chunks)) != END_OF_CHUNKS) {
+      List<Beer> current = chunk;
+      // each chunk gets its own persistence context, discarded on commit
+      int written = transactionTemplate.execute(status -> {
+        List<Beer> beers = skipExisting ? withoutExisting(current) : current;
+        beerRepository.saveAll(beers);
+        return beers.size();
+      });
+      stage.items.addAndGet(written);
+      skipped.addAndGet(chunk.size() - written);
+    }
+  }
+
+  private List<Beer> withoutExisting(List<Beer> chunk) {
+    Set<String> existing = beerRepository.findUpcsByUpcIn(chunk.stream().map(Beer::getUpc).toList());
+    return existing.isEmpty() ? chunk : chunk.stream().filter(beer -> !existing.contains(beer.getUpc())).toList();
+  }
+
+  /**
+   * @return the mapped beer, or {@code null} if the record is not a valid beer
+   */
+  Beer toBeer(BeerCSVRecord beerCSVRecord) {
+    if (beerCSVRecord.getRow() == null || beerCSVRecord.getBeer() == null) {
+      return null;
+    }
+
+    BeerStyle beerStyle = switch (StringUtils.defaultString(beerCSVRecord.getStyle())) {
+      case "American Pale Lager" -> BeerStyle.LAGER;
+      case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
+        BeerStyle.ALE;
+      case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
+      case "American Porter" -> BeerStyle.PORTER;
+      case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
+      case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
+      case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
+      case "English Pale Ale" -> BeerStyle.PALE_ALE;
+      default -> BeerStyle.PILSNER;
+    };
+
+    Beer beer = Beer.builder()
+        .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
+        .beerStyle(beerStyle)
+        .price(BigDecimal.TEN)
+        .upc(beerCSVRecord.getRow().toString())
+        .quantityOnHand(beerCSVRecord.getCount())
+        .build();
+
+    return validator.validate(beer).isEmpty() ? beer : null;
+  }
+
+  private static void awaitAll(CompletionService<Void> completion, List<Future<Void>> futures) {
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        completion.take().get();
+      }
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw new IllegalStateException("CSV ingest failed", e.getCause());
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("CSV ingest interrupted", e);
+    }
+  }
+
+  /**
+   * Throughput counters for one pipeline stage. Time its threads spend blocked
+   * on a queue is excluded, so busy time reflects the stage's own work.
+   */
+  private static class Stage {
+
+    private final String name;
+    private final int threads;
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong activeNanos = new AtomicLong();
+    private final AtomicLong idleNanos = new AtomicLong();
+
+    Stage(String name, int threads) {
+      this.name = name;
+      this.threads = threads;
+    }
+
+    void run(Runnable body) {
+      long started = System.nanoTime();
+      try {
+        body.run();
+      } finally {
+        activeNanos.addAndGet(System.nanoTime() - started);
+      }
+    }
+
+    <T> T take(BlockingQueue<T> queue) {
+      long started = System.nanoTime();
+      try {
+        return queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("CSV ingest interrupted", e);
+      } finally {
+        idleNanos.addAndGet(System.nanoTime() - started);
+      }
+    }
+
+    <T> void put(BlockingQueue<T> queue, T item) {
+      long started = System.nanoTime();
+      try {
+        queue.put(item);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("CSV ingest interrupted", e);
+      } finally {
+        idleNanos.addAndGet(System.nanoTime() - started);
+      }
+    }
+
+    BeerCsvIngestReport.StageStats stats() {
+      return BeerCsvIngestReport.StageStats.builder()
+          .stage(name)
+          .threads(threads)
+          .items(items.get())
+          .busyMillis(TimeUnit.NANOSECONDS.toMillis(Math.max(0, activeNanos.get() - idleNanos.get())))
+          .build();
+    }
+  }
+}
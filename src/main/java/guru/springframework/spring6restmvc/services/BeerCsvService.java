@@ -1,10 +1,18 @@
 package guru.springframework.spring6restmvc.services;
 
 import java.io.File;
+import java.io.Reader;
 import java.util.List;
+import java.util.stream.Stream;
 
 import guru.springframework.spring6restmvc.model.BeerCSVRecord;
 
 public interface BeerCsvService {
   List<BeerCSVRecord> convertCSV(File csvFile);
+
+  /**
+   * Lazily parses records as the returned stream is consumed, so memory use
+   * does not depend on the file size. Closing the stream closes the reader.
+   */
+  Stream<BeerCSVRecord> streamCSV(Reader csvReader);
 }
@@ -3,7 +3,15 @@ package guru.springframework.spring6restmvc.services;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.stereotype.Service;
 
@@ -26,4 +34,22 @@ public class BeerCsvServiceImpl implements BeerCsvService {
     }
   }
 
+  @Override
+  public Stream<BeerCSVRecord> streamCSV(Reader csvReader) {
+    // CsvToBean.stream() parses ahead on a background thread into an unbounded
+    // queue; its iterator reads one line per element on the calling thread
+    Iterator<BeerCSVRecord> records = new CsvToBeanBuilder<BeerCSVRecord>(csvReader)
+        .withType(BeerCSVRecord.class)
+        .build().iterator();
+
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED), false)
+        .onClose(() -> {
+          try {
+            csvReader.close();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
 }
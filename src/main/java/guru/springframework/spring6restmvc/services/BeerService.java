@@ -1,26 +1,96 @@
 package guru.springframework.spring6restmvc.services;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import guru.springframework.spring6restmvc.model.BeerBatchResult;
+import guru.springframework.spring6restmvc.model.BeerCursor;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStats;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CountMode;
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.InventoryAdjustment;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 
 public interface BeerService {
 
   Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber,
       Integer pageSize);
 
+  Slice<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber,
+      Integer pageSize, CountMode countMode);
+
+  CursorPage<BeerDTO> listBeersAfter(String beerName, BeerStyle beerStyle, Boolean showInventory, BeerCursor after,
+      Integer pageSize);
+
+  /**
+   * Hands every matching beer to the consumer one at a time, without holding
+   * the result set in memory.
+   */
+  void exportBeers(String beerName, BeerStyle beerStyle, Consumer<BeerDTO> consumer);
+
   Optional<BeerDTO> getBeerById(UUID id);
 
+  Optional<VersionStamp> getBeerVersion(UUID id);
+
+  /**
+   * Per-style counts, inventory and prices of the whole catalog, kept up to
+   * date by the service's writes rather than queried on each call.
+   */
+  BeerStats getBeerStats();
+
   BeerDTO saveNewBeer(BeerDTO beer);
 
-  Optional<BeerDTO> updateById(UUID beerId, BeerDTO beer);
+  /**
+   * Inserts each beer, or updates the existing beer with the same UPC.
+   *
+   * @return one result per input beer, in input order
+   */
+  List<BeerBatchResult> saveOrUpdateBeers(List<BeerDTO> beers);
+
+  /**
+   * Replaces the beer's name, style, price and upc.
+   *
+   * @param expectedVersion only update if the beer is still at this version, or
+   *                        {@code null} to update unconditionally
+   * @return the beer's version after the update, which is only {@code null}
+   *         when an unconditional update cannot know it without reading the
+   *         beer back; empty if there is no beer with that id
+   * @throws OptimisticLockingFailureException if the beer is at another version
+   */
+  Optional<VersionStamp> updateById(UUID beerId, BeerDTO beer, Integer expectedVersion);
 
   boolean deleteById(UUID beerId);
 
-  Optional<BeerDTO> patchById(UUID beerId, BeerDTO beer);
+  /**
+   * Deletes every beer in {@code beerIds} in chunked {@code IN} statements.
+   * Unknown and repeated ids are ignored.
+   *
+   * @return the number of beers deleted
+   */
+  int deleteByIds(Collection<UUID> beerIds);
+
+  /**
+   * Updates only the non-empty properties of {@code beer}. Arguments and
+   * result as for {@link #updateById(UUID, BeerDTO, Integer)}; a patch that
+   * changes nothing leaves the version as it was.
+   */
+  Optional<VersionStamp> patchById(UUID beerId, BeerDTO beer, Integer expectedVersion);
+
+  /**
+   * Adds {@code delta} to the beer's quantity on hand without reading it first,
+   * or queues it for the {@link InventoryDeltaCoalescer} when that is enabled.
+   *
+   * @return empty if there is no beer with that id
+   * @throws InsufficientInventoryException if the quantity would drop below zero
+   */
+  Optional<InventoryAdjustment> adjustInventory(UUID beerId, int delta);
 }
@@ -1,32 +1,87 @@
 package guru.springframework.spring6restmvc.services;
 
 import java.math.BigDecimal;
+import java.text.CollationKey;
+import java.text.Collator;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import guru.springframework.spring6restmvc.model.BeerBatchResult;
+import guru.springframework.spring6restmvc.model.BeerCursor;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStats;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CountMode;
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.InventoryAdjustment;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * In-memory beer store with the filter and paging semantics of
+ * {@link BeerServiceJPA}.
+ * <p>
+ * Beers live in a concurrent map of immutable-by-convention DTOs; callers
+ * only ever see copies. Secondary indexes order them by name, overall and per
+ * style, and look them up by UPC and by the trigrams of their lowercase name,
+ * which answers the case-insensitive substring filter the way MySQL's ngram
+ * index does for the JPA path.
+ * <p>
+ * Reads take no locks. The name orderings are immutable sorted arrays that
+ * writers replace wholesale, so a listing walks one consistent snapshot and
+ * sees every beer in it exactly once, with its latest values. Writers are
+ * serialized; only adding, removing, renaming or restyling a beer copies the
+ * arrays.
+ */
 @Slf4j
 @Service
 public class BeerServiceImpl implements BeerService {
 
-  private Map<UUID, BeerDTO> beerMap;
+  private final static int DEFAULT_PAGE_NUMBER = 0;
+  private final static int DEFAULT_PAGE_SIZE = 25;
+  private final static int MAX_PAGE_SIZE = 1000;
+  private final static int GRAM_LENGTH = 3;
 
-  public BeerServiceImpl() {
-    this.beerMap = new HashMap<>();
+  private static final Collator NAME_COLLATOR = nameCollator();
+  private static final Comparator<BeerDTO> NAME_ORDER = Comparator.comparing(NameKey::of);
+
+  private final ConcurrentMap<UUID, BeerDTO> beerMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<UUID>> byNameGram = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, UUID> byUpc = new ConcurrentHashMap<>();
+  private volatile NameIndex nameIndex = NameIndex.EMPTY;
+  private volatile BeerStatsAccumulator stats = new BeerStatsAccumulator();
 
+  private final ReentrantLock writeLock = new ReentrantLock();
+  // guarded by writeLock
+  private boolean rebuildNameIndex;
+
+  public BeerServiceImpl() {
     BeerDTO beerOne = BeerDTO.builder()
         .id(UUID.randomUUID())
         .version(1)
@@ -63,22 +118,275 @@ public class BeerServiceImpl implements BeerService {
         .updatedDate(LocalDateTime.now())
         .build();
 
-    this.beerMap.put(beerOne.getId(), beerOne);
-    this.beerMap.put(beerTwo.getId(), beerTwo);
-    this.beerMap.put(beerThree.getId(), beerThree);
+    publish(null, beerOne);
+    publish(null, beerTwo);
+    publish(null, beerThree);
+  }
+
+  /**
+   * Sort key of the name ordered indexes, matching the {@code order by
+   * beer_name, id} of the JPA keyset queries so cursors mean the same thing on
+   * either service: the name under an accent and case insensitive collation,
+   * like the column's, then the id compared as the unsigned bytes of its
+   * {@code binary(16)} column rather than by {@link UUID#compareTo}, which
+   * compares signed halves.
+   */
+  private record NameKey(String name, CollationKey sortKey, UUID id) implements Comparable<NameKey> {
+
+    static NameKey of(BeerDTO beer) {
+      return of(beer.getBeerName(), beer.getId());
+    }
+
+    static NameKey of(String beerName, UUID id) {
+      String name = lowerCase(beerName);
+      return new NameKey(name, NAME_COLLATOR.getCollationKey(name), id);
+    }
+
+    @Override
+    public int compareTo(NameKey other) {
+      int byName = sortKey.compareTo(other.sortKey);
+      if (byName != 0) {
+        return byName;
+      }
+      int byHigh = Long.compareUnsigned(id.getMostSignificantBits(), other.id.getMostSignificantBits());
+      return byHigh != 0 ? byHigh
+          : Long.compareUnsigned(id.getLeastSignificantBits(), other.id.getLeastSignificantBits());
+    }
+  }
+
+  /**
+   * Beers in name order, overall and per style. Never modified once published.
+   */
+  private record NameIndex(NameKey[] all, Map<BeerStyle, NameKey[]> byStyle) {
+
+    static final NameKey[] NO_KEYS = new NameKey[0];
+    static final NameIndex EMPTY = new NameIndex(NO_KEYS, new EnumMap<>(BeerStyle.class));
+
+    static NameIndex of(Collection<BeerDTO> beers) {
+      NameKey[] all = beers.stream().map(NameKey::of).sorted().toArray(NameKey[]::new);
+      Map<BeerStyle, NameKey[]> byStyle = new EnumMap<>(BeerStyle.class);
+      for (BeerStyle beerStyle : BeerStyle.values()) {
+        byStyle.put(beerStyle, beers.stream()
+            .filter(beer -> beer.getBeerStyle() == beerStyle)
+            .map(NameKey::of)
+            .sorted()
+            .toArray(NameKey[]::new));
+      }
+      return new NameIndex(all, byStyle);
+    }
+
+    NameKey[] keys(BeerStyle beerStyle) {
+      return beerStyle == null ? all : byStyle.getOrDefault(beerStyle, NO_KEYS);
+    }
+
+    /**
+     * @return a copy with {@code previous} swapped for {@code current}; either
+     *         may be {@code null}
+     */
+    NameIndex replace(BeerDTO previous, BeerDTO current) {
+      NameKey previousKey = previous == null ? null : NameKey.of(previous);
+      NameKey currentKey = current == null ? null : NameKey.of(current);
+      BeerStyle previousStyle = previous == null ? null : previous.getBeerStyle();
+      BeerStyle currentStyle = current == null ? null : current.getBeerStyle();
+      if (Objects.equals(previousKey, currentKey) && previousStyle == currentStyle) {
+        return this;
+      }
+
+      Map<BeerStyle, NameKey[]> styles = new EnumMap<>(byStyle);
+      if (previousStyle != null) {
+        styles.put(previousStyle, remove(keys(previousStyle), previousKey));
+      }
+      if (currentStyle != null) {
+        styles.put(currentStyle, insert(styles.getOrDefault(currentStyle, NO_KEYS), currentKey));
+      }
+      return new NameIndex(insert(remove(all, previousKey), currentKey), styles);
+    }
+
+    private static NameKey[] remove(NameKey[] keys, NameKey key) {
+      int at = key == null ? -1 : Arrays.binarySearch(keys, key);
+      if (at < 0) {
+        return keys;
+      }
+      NameKey[] removed = new NameKey[keys.length - 1];
+      System.arraycopy(keys, 0, removed, 0, at);
+      System.arraycopy(keys, at + 1, removed, at, keys.length - at - 1);
+      return removed;
+    }
+
+    private static NameKey[] insert(NameKey[] keys, NameKey key) {
+      int at = key == null ? 0 : Arrays.binarySearch(keys, key);
+      if (at >= 0) {
+        return keys;
+      }
+      at = -at - 1;
+      NameKey[] inserted = new NameKey[keys.length + 1];
+      System.arraycopy(keys, 0, inserted, 0, at);
+      inserted[at] = key;
+      System.arraycopy(keys, at, inserted, at + 1, keys.length - at);
+      return inserted;
+    }
+  }
+
+  public PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
+    if (pageNumber == null || pageNumber <= 0)
+      pageNumber = DEFAULT_PAGE_NUMBER;
+
+    return PageRequest.of(pageNumber, resolvePageSize(pageSize));
+  }
+
+  private static int resolvePageSize(Integer pageSize) {
+    if (pageSize == null || pageSize <= 0)
+      return DEFAULT_PAGE_SIZE;
+
+    return Math.min(pageSize, MAX_PAGE_SIZE);
   }
 
   @Override
   public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber,
       Integer pageSize) {
-    return new PageImpl<>(new ArrayList<>(beerMap.values()));
+    PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+    boolean withInventory = showInventory == null || showInventory;
+
+    if (StringUtils.hasText(beerName)) {
+      List<BeerDTO> matches = findByName(beerName, beerStyle).toList();
+      int from = (int) Math.min(pageRequest.getOffset(), matches.size());
+      int to = Math.min(from + pageRequest.getPageSize(), matches.size());
+
+      return new PageImpl<>(matches.subList(from, to).stream().map(beer -> copyOf(beer, withInventory)).toList(),
+          pageRequest, matches.size());
+    }
+
+    NameKey[] keys = nameIndex.keys(beerStyle);
+    int from = (int) Math.min(pageRequest.getOffset(), keys.length);
+    int to = Math.min(from + pageRequest.getPageSize(), keys.length);
+
+    List<BeerDTO> content = resolve(Arrays.stream(keys, from, to))
+        .map(beer -> copyOf(beer, withInventory))
+        .toList();
+
+    return new PageImpl<>(content, pageRequest, keys.length);
+  }
+
+  @Override
+  public Slice<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber,
+      Integer pageSize, CountMode countMode) {
+    // the exact count is free here, so every mode gets it
+    return listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize);
+  }
+
+  @Override
+  public CursorPage<BeerDTO> listBeersAfter(String beerName, BeerStyle beerStyle, Boolean showInventory,
+      BeerCursor after, Integer pageSize) {
+    int size = resolvePageSize(pageSize);
+    boolean withInventory = showInventory == null || showInventory;
+    NameKey afterKey = after == null ? null : NameKey.of(after.beerName(), after.id());
+
+    Stream<BeerDTO> matches;
+    if (StringUtils.hasText(beerName)) {
+      matches = findByName(beerName, beerStyle)
+          .filter(beer -> afterKey == null || NameKey.of(beer).compareTo(afterKey) > 0);
+    } else {
+      NameKey[] keys = nameIndex.keys(beerStyle);
+      int from = 0;
+      if (afterKey != null) {
+        int at = Arrays.binarySearch(keys, afterKey);
+        from = at >= 0 ? at + 1 : -at - 1;
+      }
+      matches = resolve(Arrays.stream(keys, from, keys.length));
+    }
+
+    List<BeerDTO> page = matches.limit(size + 1).toList();
+    List<BeerDTO> content = page.subList(0, Math.min(size, page.size())).stream()
+        .map(beer -> copyOf(beer, withInventory))
+        .toList();
+
+    String nextCursor = null;
+    if (page.size() > size) {
+      BeerDTO last = content.get(content.size() - 1);
+      nextCursor = new BeerCursor(last.getBeerName(), last.getId()).encode();
+    }
+
+    return CursorPage.<BeerDTO>builder()
+        .content(content)
+        .size(content.size())
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  @Override
+  public void exportBeers(String beerName, BeerStyle beerStyle, Consumer<BeerDTO> consumer) {
+    Stream<BeerDTO> matches = StringUtils.hasText(beerName)
+        ? findByName(beerName, beerStyle)
+        : resolve(Arrays.stream(nameIndex.keys(beerStyle)));
+
+    matches.map(beer -> copyOf(beer, true)).forEach(consumer);
+  }
+
+  /**
+   * Maps snapshot entries to the current values of the beers not deleted since.
+   */
+  private Stream<BeerDTO> resolve(Stream<NameKey> keys) {
+    return keys.map(key -> beerMap.get(key.id())).filter(Objects::nonNull);
+  }
+
+  /**
+   * Beers whose name contains {@code beerName}, ignoring case, in name order.
+   * Queries of at least {@value #GRAM_LENGTH} characters only look at the
+   * beers sharing the query's rarest trigram, unless that is a good part of
+   * the catalogue anyway, when walking the ordered snapshot beats sorting.
+   */
+  private Stream<BeerDTO> findByName(String beerName, BeerStyle beerStyle) {
+    String query = lowerCase(beerName);
+    NameKey[] keys = nameIndex.keys(beerStyle);
+
+    Set<UUID> candidates = null;
+    for (String gram : grams(query)) {
+      Set<UUID> ids = byNameGram.getOrDefault(gram, Set.of());
+      if (candidates == null || ids.size() < candidates.size()) {
+        candidates = ids;
+      }
+    }
+
+    if (candidates == null || candidates.size() * 4 > keys.length) {
+      return resolve(Arrays.stream(keys).filter(key -> key.name().contains(query)));
+    }
+
+    return candidates.stream()
+        .map(beerMap::get)
+        .filter(beer -> beer != null && (beerStyle == null || beerStyle == beer.getBeerStyle())
+            && lowerCase(beer.getBeerName()).contains(query))
+        .sorted(NAME_ORDER);
   }
 
   @Override
   public Optional<BeerDTO> getBeerById(UUID id) {
     log.debug("getBeerById -- in BeerServiceImpl");
 
-    return Optional.of(beerMap.get(id));
+    return Optional.ofNullable(id == null ? null : beerMap.get(id)).map(beer -> copyOf(beer, true));
+  }
+
+  @Override
+  public Optional<VersionStamp> getBeerVersion(UUID id) {
+    return Optional.ofNullable(id == null ? null : beerMap.get(id))
+        .map(beer -> new VersionStamp(beer.getId(), beer.getVersion(), beer.getUpdatedDate()));
+  }
+
+  @Override
+  public BeerStats getBeerStats() {
+    if (stats.hasStaleExtremes()) {
+      writeLock.lock();
+      try {
+        if (stats.hasStaleExtremes()) {
+          BeerStatsAccumulator rebuilt = new BeerStatsAccumulator();
+          beerMap.values().forEach(beer -> rebuilt.add(beer.getBeerStyle(), beer.getPrice(),
+              beer.getQuantityOnHand()));
+          stats = rebuilt;
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    }
+    return stats.snapshot();
   }
 
   @Override
@@ -95,55 +403,243 @@ public class BeerServiceImpl implements BeerService {
         .version(1)
         .build();
 
-    beerMap.put(savedBeer.getId(), savedBeer);
+    writeLock.lock();
+    try {
+      publish(null, savedBeer);
+    } finally {
+      writeLock.unlock();
+    }
 
-    return savedBeer;
+    return copyOf(savedBeer, true);
   }
 
   @Override
-  public Optional<BeerDTO> updateById(UUID beerId, BeerDTO beer) {
-    BeerDTO existing = beerMap.get(beerId);
-    existing.setBeerName(beer.getBeerName());
-    existing.setBeerStyle(beer.getBeerStyle());
-    existing.setPrice(beer.getPrice());
-    existing.setUpc(beer.getUpc());
-    existing.setQuantityOnHand(beer.getQuantityOnHand());
-    existing.setUpdatedDate(LocalDateTime.now());
+  public List<BeerBatchResult> saveOrUpdateBeers(List<BeerDTO> beers) {
+    List<BeerBatchResult> results = new ArrayList<>(beers.size());
+
+    writeLock.lock();
+    try {
+      // the name orderings are rebuilt once for the whole batch rather than copied per beer
+      rebuildNameIndex = true;
+      for (int i = 0; i < beers.size(); i++) {
+        BeerDTO beer = beers.get(i);
+        UUID existingId = beer.getUpc() == null ? null : byUpc.get(beer.getUpc());
 
-    beerMap.put(beerId, existing);
+        BeerBatchResult.Status status;
+        UUID id;
+        if (existingId != null && updateById(existingId, beer, null).isPresent()) {
+          id = existingId;
+          status = BeerBatchResult.Status.UPDATED;
+        } else {
+          id = saveNewBeer(beer).getId();
+          status = BeerBatchResult.Status.CREATED;
+        }
 
-    return Optional.of(existing);
+        results.add(BeerBatchResult.builder().index(i).id(id).status(status).build());
+      }
+    } finally {
+      rebuildNameIndex = false;
+      nameIndex = NameIndex.of(beerMap.values());
+      writeLock.unlock();
+    }
+
+    return results;
+  }
+
+  @Override
+  public Optional<VersionStamp> updateById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
+    return versionOf(replace(beerId, expectedVersion, existing -> {
+      existing.setBeerName(beer.getBeerName());
+      existing.setBeerStyle(beer.getBeerStyle());
+      existing.setPrice(beer.getPrice());
+      existing.setUpc(beer.getUpc());
+      return existing;
+    }));
   }
 
   @Override
   public boolean deleteById(UUID beerId) {
-    beerMap.remove(beerId);
+    writeLock.lock();
+    try {
+      BeerDTO existing = beerId == null ? null : beerMap.get(beerId);
+      if (existing == null) {
+        return false;
+      }
+      publish(existing, null);
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
 
-    return true;
+  @Override
+  public int deleteByIds(Collection<UUID> beerIds) {
+    int deleted = 0;
+    for (UUID beerId : new HashSet<>(beerIds)) {
+      if (deleteById(beerId)) {
+        deleted++;
+      }
+    }
+    return deleted;
   }
 
   @Override
-  public Optional<BeerDTO> patchById(UUID beerId, BeerDTO beer) {
-    BeerDTO existing = beerMap.get(beerId);
-    if (StringUtils.hasText(beer.getBeerName())) {
-      existing.setBeerName(beer.getBeerName());
+  public Optional<VersionStamp> patchById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
+    return versionOf(replace(beerId, expectedVersion, existing -> {
+      if (StringUtils.hasText(beer.getBeerName())) {
+        existing.setBeerName(beer.getBeerName());
+      }
+      if (beer.getBeerStyle() != null) {
+        existing.setBeerStyle(beer.getBeerStyle());
+      }
+      if (beer.getPrice() != null) {
+        existing.setPrice(beer.getPrice());
+      }
+      if (beer.getQuantityOnHand() != null) {
+        existing.setQuantityOnHand(beer.getQuantityOnHand());
+      }
+      if (StringUtils.hasText(beer.getUpc())) {
+        existing.setUpc(beer.getUpc());
+      }
+      return existing;
+    }));
+  }
+
+  private static Optional<VersionStamp> versionOf(BeerDTO beer) {
+    return Optional.ofNullable(beer)
+        .map(replaced -> new VersionStamp(replaced.getId(), replaced.getVersion(), replaced.getUpdatedDate()));
+  }
+
+  @Override
+  public Optional<InventoryAdjustment> adjustInventory(UUID beerId, int delta) {
+    BeerDTO adjusted = replace(beerId, null, existing -> {
+      int quantityOnHand = (existing.getQuantityOnHand() == null ? 0 : existing.getQuantityOnHand()) + delta;
+      if (quantityOnHand < 0) {
+        throw new InsufficientInventoryException(beerId, delta);
+      }
+      existing.setQuantityOnHand(quantityOnHand);
+      return existing;
+    });
+
+    return Optional.ofNullable(adjusted)
+        .map(beer -> InventoryAdjustment.builder()
+            .beerId(beerId)
+            .delta(delta)
+            .quantityOnHand(beer.getQuantityOnHand())
+            .version(beer.getVersion())
+            .build());
+  }
+
+  /**
+   * Publishes a modified copy of the beer with its version bumped.
+   *
+   * @return the new value, or {@code null} if there is no beer with that id
+   * @throws OptimisticLockingFailureException if the beer is not at
+   *                                           {@code expectedVersion}
+   */
+  private BeerDTO replace(UUID beerId, Integer expectedVersion, UnaryOperator<BeerDTO> changes) {
+    writeLock.lock();
+    try {
+      BeerDTO existing = beerId == null ? null : beerMap.get(beerId);
+      if (existing == null) {
+        return null;
+      }
+      if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+        throw new OptimisticLockingFailureException("Beer " + beerId + " is not at version " + expectedVersion);
+      }
+
+      BeerDTO replacement = changes.apply(copyOf(existing, true));
+      replacement.setVersion(existing.getVersion() == null ? 1 : existing.getVersion() + 1);
+      replacement.setUpdatedDate(LocalDateTime.now());
+
+      publish(existing, replacement);
+      return copyOf(replacement, true);
+    } finally {
+      writeLock.unlock();
     }
-    if (beer.getBeerStyle() != null) {
-      existing.setBeerStyle(beer.getBeerStyle());
+  }
+
+  /**
+   * Swaps {@code previous} for {@code current} in the store and its indexes;
+   * either may be {@code null}. Callers hold the write lock, except the
+   * constructor.
+   */
+  private void publish(BeerDTO previous, BeerDTO current) {
+    // grams and UPCs of the new value are indexed before it is published and
+    // the old value's only dropped afterwards, so lookups never miss the beer
+    if (current != null) {
+      for (String gram : grams(lowerCase(current.getBeerName()))) {
+        byNameGram.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(current.getId());
+      }
+      if (current.getUpc() != null) {
+        byUpc.put(current.getUpc(), current.getId());
+      }
+      beerMap.put(current.getId(), current);
+    } else {
+      beerMap.remove(previous.getId());
     }
-    if (beer.getPrice() != null) {
-      existing.setPrice(beer.getPrice());
+
+    if (!rebuildNameIndex) {
+      nameIndex = nameIndex.replace(previous, current);
     }
-    if (beer.getQuantityOnHand() != null) {
-      existing.setQuantityOnHand(beer.getQuantityOnHand());
+
+    if (previous != null) {
+      stats.remove(previous.getBeerStyle(), previous.getPrice(), previous.getQuantityOnHand());
     }
-    if (StringUtils.hasText(beer.getUpc())) {
-      existing.setUpc(beer.getUpc());
+    if (current != null) {
+      stats.add(current.getBeerStyle(), current.getPrice(), current.getQuantityOnHand());
+    }
+
+    if (previous != null) {
+      unindex(previous, current);
+    }
+  }
+
+  private void unindex(BeerDTO previous, BeerDTO current) {
+    Set<String> currentGrams = current == null ? Set.of() : grams(lowerCase(current.getBeerName()));
+    for (String gram : grams(lowerCase(previous.getBeerName()))) {
+      if (!currentGrams.contains(gram)) {
+        Set<UUID> ids = byNameGram.get(gram);
+        if (ids != null) {
+          ids.remove(previous.getId());
+        }
+      }
+    }
+
+    if (previous.getUpc() != null && (current == null || !previous.getUpc().equals(current.getUpc()))) {
+      byUpc.remove(previous.getUpc(), previous.getId());
     }
+  }
 
-    beerMap.put(beerId, existing);
+  private static Set<String> grams(String name) {
+    Set<String> grams = new HashSet<>();
+    for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+      grams.add(name.substring(i, i + GRAM_LENGTH));
+    }
+    return grams;
+  }
 
-    return Optional.of(existing);
+  private static Collator nameCollator() {
+    Collator collator = Collator.getInstance(Locale.ROOT);
+    collator.setStrength(Collator.PRIMARY);
+    return collator;
   }
 
+  private static String lowerCase(String value) {
+    return value == null ? "" : value.toLowerCase(Locale.ROOT);
+  }
+
+  private static BeerDTO copyOf(BeerDTO beer, boolean withInventory) {
+    return BeerDTO.builder()
+        .id(beer.getId())
+        .version(beer.getVersion())
+        .beerName(beer.getBeerName())
+        .beerStyle(beer.getBeerStyle())
+        .upc(beer.getUpc())
+        .quantityOnHand(withInventory ? beer.getQuantityOnHand() : null)
+        .price(beer.getPrice())
+        .createdDate(beer.getCreatedDate())
+        .updatedDate(beer.getUpdatedDate())
+        .build();
+  }
 }
@@ -1,153 +1,624 @@
 package guru.springframework.spring6restmvc.services;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import guru.springframework.spring6restmvc.config.ReplicaRoutingDataSource;
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.model.BeerBatchResult;
+import guru.springframework.spring6restmvc.model.BeerCursor;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerFigures;
+import guru.springframework.spring6restmvc.model.BeerStats;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CountMode;
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.InventoryAdjustment;
+import guru.springframework.spring6restmvc.model.InventoryLevel;
+import guru.springframework.spring6restmvc.model.VersionStamp;
+import guru.springframework.spring6restmvc.repositories.BeerListing;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @Primary
 @RequiredArgsConstructor
-public class BeerServiceJPA implements BeerService {
+public class BeerServiceJPA implements BeerService, SmartInitializingSingleton {
 
   private final BeerRepository beerRepository;
   private final BeerMapper beerMapper;
+  private final BeerCountCache beerCountCache;
+  private final DtoCache<BeerDTO> beerDtoCache;
+  private final EntityManager entityManager;
+  private final InventoryDeltaCoalescer inventoryDeltaCoalescer;
+  private final BeerCatalogStats beerCatalogStats;
+  private final PlatformTransactionManager transactionManager;
+  private final DbBulkhead dbBulkhead;
 
   private final static int DEFAULT_PAGE_NUMBER = 0;
   private final static int DEFAULT_PAGE_SIZE = 25;
+  private final static int MAX_PAGE_SIZE = 1000;
+
+  // MySQL's default ngram_token_size; shorter terms can never match the FULLTEXT index
+  private final static int FULLTEXT_MIN_TERM_LENGTH = 2;
+
+  @Value("${app.beer.search.fulltext:false}")
+  private volatile boolean fullTextSearch;
+
+  @Value("${app.beer.batch.chunk-size:500}")
+  private int batchChunkSize;
+
+  /**
+   * Checks once, before requests are served, that the full-text search works
+   * against this database. A failing native query marks the surrounding
+   * transaction rollback-only, so a listing cannot fall back to LIKE within
+   * the same transaction; the probe runs in a transaction of its own.
+   */
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!fullTextSearch) {
+      return;
+    }
+    try {
+      TransactionTemplate probe = new TransactionTemplate(transactionManager);
+      probe.setReadOnly(true);
+      probe.executeWithoutResult(status -> beerRepository.countSearchByBeerName("+\"probe\"", null));
+    } catch (DataAccessException e) {
+      disableFullTextSearch(e);
+    }
+  }
 
   public PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
     if (pageNumber == null || pageNumber <= 0)
       pageNumber = DEFAULT_PAGE_NUMBER;
 
-    if (pageSize == null || pageSize <= 0)
-      pageSize = DEFAULT_PAGE_SIZE;
+    Sort sort = Sort.by(Sort.Order.asc("beerName"));
 
-    if (pageSize >= 1000)
-      pageSize = 1000;
+    return PageRequest.of(pageNumber, resolvePageSize(pageSize), sort);
+  }
 
-    Sort sort = Sort.by(Sort.Order.asc("beerName"));
+  private static int resolvePageSize(Integer pageSize) {
+    if (pageSize == null || pageSize <= 0)
+      return DEFAULT_PAGE_SIZE;
 
-    return PageRequest.of(pageNumber, pageSize, sort);
+    return Math.min(pageSize, MAX_PAGE_SIZE);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber,
       Integer pageSize) {
 
     PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+    Class<? extends BeerListing> type = BeerListing.type(showInventory);
+    String fullTextQuery = fullTextQuery(beerName);
 
-    Page<Beer> beerPage;
+    Page<? extends BeerListing> beerPage;
 
-    if (StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
-      beerPage = listBeersByNameAndStyle(beerName, beerStyle, pageRequest);
+    if (fullTextQuery != null) {
+      // ranked by relevance, the name sort doesn't apply
+      beerPage = fullText(() -> beerRepository.searchByBeerName(fullTextQuery, beerStyle,
+          PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize()), type));
+    } else if (StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
+      beerPage = beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle,
+          pageRequest, type);
     } else if (StringUtils.hasText(beerName)) {
-      beerPage = listBeersByName(beerName, pageRequest);
+      beerPage = beerRepository.findAllByBeerNameIsLikeIgnoreCase("%" + beerName + "%", pageRequest, type);
     } else if (!Objects.isNull(beerStyle)) {
-      beerPage = listBeersByStyle(beerStyle, pageRequest);
+      beerPage = beerRepository.findAllByBeerStyle(beerStyle, pageRequest, type);
     } else {
-      beerPage = this.beerRepository.findAll(pageRequest);
+      beerPage = this.beerRepository.findPageBy(pageRequest, type);
     }
 
-    if (Objects.nonNull(showInventory) && !showInventory) {
-      beerPage.forEach(beer -> beer.setQuantityOnHand(null));
+    return beerPage.map(BeerListing::toBeerDTO);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Slice<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber,
+      Integer pageSize, CountMode countMode) {
+
+    if (countMode == null || countMode == CountMode.EXACT) {
+      return listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize);
     }
 
-    return beerPage.map(beerMapper::beerToBeerDTO);
+    PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+    Class<? extends BeerListing> type = BeerListing.type(showInventory);
+    String fullTextQuery = fullTextQuery(beerName);
+
+    Slice<? extends BeerListing> beerSlice;
+    LongSupplier counter;
+
+    if (fullTextQuery != null) {
+      beerSlice = fullText(() -> beerRepository.searchSliceByBeerName(fullTextQuery, beerStyle,
+          PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize()), type));
+      counter = () -> beerRepository.countSearchByBeerName(fullTextQuery, beerStyle);
+    } else if (StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
+      beerSlice = beerRepository.findSliceByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle,
+          pageRequest, type);
+      counter = () -> beerRepository.countByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle);
+    } else if (StringUtils.hasText(beerName)) {
+      beerSlice = beerRepository.findSliceByBeerNameIsLikeIgnoreCase("%" + beerName + "%", pageRequest, type);
+      counter = () -> beerRepository.countByBeerNameIsLikeIgnoreCase("%" + beerName + "%");
+    } else if (!Objects.isNull(beerStyle)) {
+      beerSlice = beerRepository.findSliceByBeerStyle(beerStyle, pageRequest, type);
+      counter = () -> beerRepository.countByBeerStyle(beerStyle);
+    } else {
+      beerSlice = beerRepository.findSliceBy(pageRequest, type);
+      counter = beerRepository::count;
+    }
+
+    Slice<BeerDTO> dtoSlice = beerSlice.map(BeerListing::toBeerDTO);
+
+    if (countMode == CountMode.APPROXIMATE) {
+      // the full-text and LIKE filters match different beers, so they are counted apart
+      String countKey = (fullTextQuery != null ? "fulltext:" + fullTextQuery
+          : StringUtils.hasText(beerName) ? beerName.toLowerCase() : "") + "|" + beerStyle;
+      return new PageImpl<>(dtoSlice.getContent(), pageRequest, beerCountCache.get(countKey, counter));
+    }
+
+    return dtoSlice;
   }
 
-  private Page<Beer> listBeersByNameAndStyle(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
-    return beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle, pageRequest);
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPage<BeerDTO> listBeersAfter(String beerName, BeerStyle beerStyle, Boolean showInventory,
+      BeerCursor after, Integer pageSize) {
+
+    Limit limit = Limit.of(resolvePageSize(pageSize));
+    ScrollPosition position = after == null
+        ? ScrollPosition.keyset()
+        : ScrollPosition.forward(Map.of("beerName", after.beerName(), "id", after.id()));
+    Class<? extends BeerListing> type = BeerListing.type(showInventory);
+    String fullTextQuery = fullTextQuery(beerName);
+
+    Window<? extends BeerListing> beerWindow;
+
+    if (fullTextQuery != null) {
+      // a cursor walks the full-text matches in name order, relevance has no stable keyset
+      beerWindow = fullText(() -> beerRepository.searchByBeerNameOrderByBeerNameAscIdAsc(fullTextQuery, beerStyle,
+          position, limit, type));
+    } else if (StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
+      beerWindow = beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyleOrderByBeerNameAscIdAsc(
+          "%" + beerName + "%", beerStyle, position, limit, type);
+    } else if (StringUtils.hasText(beerName)) {
+      beerWindow = beerRepository.findAllByBeerNameIsLikeIgnoreCaseOrderByBeerNameAscIdAsc("%" + beerName + "%",
+          position, limit, type);
+    } else if (!Objects.isNull(beerStyle)) {
+      beerWindow = beerRepository.findAllByBeerStyleOrderByBeerNameAscIdAsc(beerStyle, position, limit, type);
+    } else {
+      beerWindow = beerRepository.findAllByOrderByBeerNameAscIdAsc(position, limit, type);
+    }
+
+    List<BeerDTO> content = beerWindow.map(BeerListing::toBeerDTO).getContent();
+
+    String nextCursor = null;
+    if (beerWindow.hasNext() && !content.isEmpty()) {
+      BeerDTO last = content.get(content.size() - 1);
+      nextCursor = new BeerCursor(last.getBeerName(), last.getId()).encode();
+    }
+
+    return CursorPage.<BeerDTO>builder()
+        .content(content)
+        .size(content.size())
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  /**
+   * The one place deciding between full-text search and the LIKE filter, so
+   * every listing variant matches the same beers for a name.
+   *
+   * @return the full-text query for the name, or {@code null} to filter with LIKE
+   */
+  private String fullTextQuery(String beerName) {
+    return fullTextSearch && StringUtils.hasText(beerName) ? toFullTextQuery(beerName) : null;
+  }
+
+  private <T> T fullText(Supplier<T> search) {
+    try {
+      return search.get();
+    } catch (DataAccessException e) {
+      // the transaction is rollback-only now, later requests take the LIKE path
+      disableFullTextSearch(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Builds a boolean-mode query requiring every term of the name as an ngram
+   * phrase, terms being split on whitespace and on the boolean operator
+   * characters. This is not the LIKE filter used without full-text search:
+   * the terms may appear in any order and anywhere in the name, so "pale ale"
+   * also matches "Ale of the Pale Moon" and "double-ipa" matches "Double
+   * Trouble IPA", and the results are ranked by relevance rather than by name.
+   *
+   * @return the query, or {@code null} if a term is too short for the ngram
+   *         index, in which case the LIKE filter is used
+   */
+  static String toFullTextQuery(String beerName) {
+    StringBuilder query = new StringBuilder();
+    for (String term : beerName.replaceAll("[+\\-<>()~*\"@]", " ").trim().split("\\s+")) {
+      if (term.length() < FULLTEXT_MIN_TERM_LENGTH) {
+        return null;
+      }
+      query.append(query.isEmpty() ? "" : " ").append("+\"").append(term).append('"');
+    }
+    return query.isEmpty() ? null : query.toString();
   }
 
-  private Page<Beer> listBeersByStyle(BeerStyle beerStyle, PageRequest pageRequest) {
-    return beerRepository.findAllByBeerStyle(beerStyle, pageRequest);
+  private void disableFullTextSearch(DataAccessException e) {
+    log.warn("Full-text beer name search unavailable, falling back to LIKE queries", e);
+    fullTextSearch = false;
   }
 
-  public Page<Beer> listBeersByName(String beerName, PageRequest pageRequest) {
-    return beerRepository.findAllByBeerNameIsLikeIgnoreCase("%" + beerName + "%", pageRequest);
+  @Override
+  @Transactional(readOnly = true)
+  public void exportBeers(String beerName, BeerStyle beerStyle, Consumer<BeerDTO> consumer) {
+    String beerNamePattern = StringUtils.hasText(beerName) ? "%" + beerName + "%" : null;
+
+    try (Stream<Beer> beers = beerRepository.streamAllForExport(beerNamePattern, beerStyle)) {
+      beers.forEach(beer -> {
+        consumer.accept(beerMapper.beerToBeerDTO(beer));
+        entityManager.detach(beer);
+      });
+    }
   }
 
   @Override
   public Optional<BeerDTO> getBeerById(UUID id) {
-    return Optional.ofNullable(beerMapper.beerToBeerDTO(beerRepository.findById(id).orElse(null)));
+    // not transactional, a cache hit takes neither a bulkhead permit nor a connection; a
+    // miss reads the primary, a lagging replica would cache the row from before a write
+    return beerDtoCache.get(id, beerId -> dbBulkhead.call(() -> ReplicaRoutingDataSource.onPrimary(
+        () -> Optional.ofNullable(beerMapper.beerToBeerDTO(beerRepository.findById(beerId).orElse(null))))));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<VersionStamp> getBeerVersion(UUID id) {
+    return beerRepository.findVersionById(id);
+  }
+
+  @Override
+  public BeerStats getBeerStats() {
+    return beerCatalogStats.snapshot();
   }
 
   @Override
   public BeerDTO saveNewBeer(BeerDTO beer) {
-    return beerMapper.beerToBeerDTO(beerRepository.save(beerMapper.beerDtoToBeer(beer)));
+    BeerDTO savedBeer = beerMapper.beerToBeerDTO(beerRepository.save(beerMapper.beerDtoToBeer(beer)));
+    beerDtoCache.put(savedBeer.getId(), savedBeer);
+    beerCatalogStats.changed(null, figuresOf(savedBeer));
+    return savedBeer;
   }
 
   @Override
-  public Optional<BeerDTO> updateById(UUID beerId, BeerDTO beer) {
-    AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>(Optional.empty());
-
-    beerRepository.findById(beerId).ifPresentOrElse(beerEntity -> {
-      beerEntity.setBeerName(beer.getBeerName());
-      beerEntity.setBeerStyle(beer.getBeerStyle());
-      beerEntity.setPrice(beer.getPrice());
-      beerEntity.setUpc(beer.getUpc());
-      beerRepository.save(beerEntity);
-      atomicReference.set(Optional.of(beerMapper.beerToBeerDTO(beerEntity)));
-    }, () -> {
-      atomicReference.set(Optional.empty());
+  @Transactional
+  public List<BeerBatchResult> saveOrUpdateBeers(List<BeerDTO> beers) {
+    List<BeerBatchResult> results = new ArrayList<>(beers.size());
+    List<BeerFigures> removedFigures = new ArrayList<>();
+    List<BeerFigures> addedFigures = new ArrayList<>();
+
+    for (int from = 0; from < beers.size(); from += batchChunkSize) {
+      List<BeerDTO> chunk = beers.subList(from, Math.min(from + batchChunkSize, beers.size()));
+
+      // one lookup per chunk; later duplicates of a UPC in the chunk update the same entity
+      Map<String, Beer> beersByUpc = new HashMap<>();
+      beerRepository.findAllByUpcIn(chunk.stream().map(BeerDTO::getUpc).toList())
+          .forEach(existing -> beersByUpc.putIfAbsent(existing.getUpc(), existing));
+
+      List<Beer> chunkBeers = new ArrayList<>(chunk.size());
+      List<BeerBatchResult.Status> chunkStatuses = new ArrayList<>(chunk.size());
+      // a UPC repeated in the chunk is one entity: its figures count once, the old ones as first seen
+      Set<Beer> distinctBeers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+      for (BeerDTO beer : chunk) {
+        Beer entity = beersByUpc.get(beer.getUpc());
+        if (entity != null) {
+          if (distinctBeers.add(entity)) {
+            removedFigures.add(figuresOf(entity));
+          }
+          entity.setBeerName(beer.getBeerName());
+          entity.setBeerStyle(beer.getBeerStyle());
+          entity.setPrice(beer.getPrice());
+          entity.setQuantityOnHand(beer.getQuantityOnHand());
+          chunkStatuses.add(BeerBatchResult.Status.UPDATED);
+        } else {
+          entity = beerMapper.beerDtoToBeer(beer);
+          entity.setId(null);
+          entity.setVersion(null);
+          entityManager.persist(entity);
+          beersByUpc.put(entity.getUpc(), entity);
+          distinctBeers.add(entity);
+          chunkStatuses.add(BeerBatchResult.Status.CREATED);
+        }
+        chunkBeers.add(entity);
+      }
+
+      distinctBeers.forEach(entity -> addedFigures.add(figuresOf(entity)));
+
+      // hibernate.jdbc.batch_size groups the chunk's inserts and updates into JDBC batches
+      entityManager.flush();
+      entityManager.clear();
+
+      for (int i = 0; i < chunkBeers.size(); i++) {
+        UUID id = chunkBeers.get(i).getId();
+        if (chunkStatuses.get(i) == BeerBatchResult.Status.UPDATED) {
+          beerDtoCache.evict(id);
+        }
+        results.add(BeerBatchResult.builder()
+            .index(from + i)
+            .id(id)
+            .status(chunkStatuses.get(i))
+            .build());
+      }
+    }
+
+    beerCatalogStats.changed(removedFigures, addedFigures);
+    return results;
+  }
+
+  @Override
+  @Transactional
+  public Optional<VersionStamp> updateById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
+    Optional<BeerFigures> before = cachedFigures(beerId, expectedVersion);
+    beerDtoCache.evict(beerId);
+
+    Optional<VersionStamp> updated = updateColumns(beerId, expectedVersion, (update, root) -> {
+      update.set(root.get("beerName"), beer.getBeerName());
+      update.set(root.get("beerStyle"), beer.getBeerStyle());
+      update.set(root.get("price"), beer.getPrice());
+      update.set(root.get("upc"), beer.getUpc());
+      return true;
     });
 
-    return atomicReference.get();
+    if (updated.isPresent()) {
+      figuresChanged(before, old -> new BeerFigures(beerId, beer.getBeerStyle(), beer.getPrice(),
+          old.quantityOnHand()));
+    }
+    return updated;
   }
 
   @Override
+  @Transactional
   public boolean deleteById(UUID beerId) {
-    if (beerRepository.existsById(beerId)) {
-      beerRepository.deleteById(beerId);
-      return true;
+    Optional<BeerFigures> before = cachedFigures(beerId, null);
+    beerDtoCache.evict(beerId);
+
+    boolean deleted = beerRepository.deleteRowById(beerId) > 0;
+    if (deleted) {
+      before.ifPresentOrElse(old -> beerCatalogStats.changed(old, null), beerCatalogStats::changedUntracked);
+    }
+    return deleted;
+  }
+
+  @Override
+  @Transactional
+  public int deleteByIds(Collection<UUID> beerIds) {
+    List<UUID> ids = List.copyOf(new LinkedHashSet<>(beerIds));
+    int deleted = 0;
+
+    for (int from = 0; from < ids.size(); from += batchChunkSize) {
+      List<UUID> chunk = ids.subList(from, Math.min(from + batchChunkSize, ids.size()));
+      chunk.forEach(beerDtoCache::evict);
+      beerCatalogStats.changed(beerRepository.findFiguresByIdIn(chunk), List.of());
+      deleted += beerRepository.deleteRowsByIdIn(chunk);
     }
-    return false;
+
+    return deleted;
   }
 
   @Override
-  public Optional<BeerDTO> patchById(UUID beerId, BeerDTO beer) {
-    AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
+  @Transactional
+  public Optional<VersionStamp> patchById(UUID beerId, BeerDTO beer, Integer expectedVersion) {
+    Optional<BeerFigures> before = cachedFigures(beerId, expectedVersion);
+    beerDtoCache.evict(beerId);
 
-    beerRepository.findById(beerId).ifPresentOrElse(existing -> {
+    Optional<VersionStamp> patched = updateColumns(beerId, expectedVersion, (update, root) -> {
+      boolean changed = false;
       if (StringUtils.hasText(beer.getBeerName())) {
-        existing.setBeerName(beer.getBeerName());
+        update.set(root.get("beerName"), beer.getBeerName());
+        changed = true;
       }
       if (beer.getBeerStyle() != null) {
-        existing.setBeerStyle(beer.getBeerStyle());
+        update.set(root.get("beerStyle"), beer.getBeerStyle());
+        changed = true;
       }
       if (beer.getPrice() != null) {
-        existing.setPrice(beer.getPrice());
+        update.set(root.get("price"), beer.getPrice());
+        changed = true;
       }
       if (beer.getQuantityOnHand() != null) {
-        existing.setQuantityOnHand(beer.getQuantityOnHand());
+        update.set(root.get("quantityOnHand"), beer.getQuantityOnHand());
+        changed = true;
       }
       if (StringUtils.hasText(beer.getUpc())) {
-        existing.setUpc(beer.getUpc());
+        update.set(root.get("upc"), beer.getUpc());
+        changed = true;
       }
-      atomicReference.set(Optional.of(beerMapper.beerToBeerDTO(beerRepository.save(existing))));
-
-    }, () -> {
-      atomicReference.set(Optional.empty());
+      return changed;
     });
 
-    return atomicReference.get();
+    // only a patch of a column the statistics aggregate changes them
+    if (patched.isPresent()
+        && (beer.getBeerStyle() != null || beer.getPrice() != null || beer.getQuantityOnHand() != null)) {
+      figuresChanged(before, old -> new BeerFigures(beerId,
+          beer.getBeerStyle() != null ? beer.getBeerStyle() : old.beerStyle(),
+          beer.getPrice() != null ? beer.getPrice() : old.price(),
+          beer.getQuantityOnHand() != null ? beer.getQuantityOnHand() : old.quantityOnHand()));
+    }
+    return patched;
+  }
+
+  @Override
+  @Transactional
+  public Optional<InventoryAdjustment> adjustInventory(UUID beerId, int delta) {
+    if (inventoryDeltaCoalescer.isEnabled()) {
+      if (!inventoryDeltaCoalescer.add(beerId, delta, () -> beerRepository.findInventoryLevelById(beerId)
+          .map(level -> level.quantityOnHand() == null ? 0 : level.quantityOnHand()))) {
+        return Optional.empty();
+      }
+      return Optional.of(InventoryAdjustment.builder().beerId(beerId).delta(delta).queued(true).build());
+    }
+
+    beerDtoCache.evict(beerId);
+
+    if (beerRepository.addToQuantityOnHand(beerId, delta, LocalDateTime.now()) == 0) {
+      if (beerRepository.findVersionById(beerId).isEmpty()) {
+        return Optional.empty();
+      }
+      throw new InsufficientInventoryException(beerId, delta);
+    }
+
+    Optional<InventoryLevel> inventoryLevel = beerRepository.findInventoryLevelById(beerId);
+    inventoryLevel.ifPresent(level -> beerCatalogStats.quantityAdjusted(level.beerStyle(), delta));
+
+    return inventoryLevel
+        .map(level -> InventoryAdjustment.builder()
+            .beerId(beerId)
+            .delta(delta)
+            .quantityOnHand(level.quantityOnHand())
+            .version(level.version())
+            .build());
+  }
+
+  /**
+   * The figures a write replaces, from a cached copy at the version being
+   * written. Reading them from the database would cost every write a SELECT.
+   */
+  private Optional<BeerFigures> cachedFigures(UUID beerId, Integer expectedVersion) {
+    return beerDtoCache.getIfPresent(beerId)
+        .filter(cached -> expectedVersion == null || expectedVersion.equals(cached.getVersion()))
+        .map(BeerServiceJPA::figuresOf);
+  }
+
+  /**
+   * Records the new figures of a write in the statistics, or has them
+   * reconciled if the old ones are unknown.
+   */
+  private void figuresChanged(Optional<BeerFigures> before, UnaryOperator<BeerFigures> change) {
+    if (before.isEmpty()) {
+      beerCatalogStats.changedUntracked();
+      return;
+    }
+
+    BeerFigures old = before.get();
+    BeerFigures changed = change.apply(old);
+    // an unchanged extreme would otherwise be marked stale and trigger a reconciliation
+    if (old.beerStyle() != changed.beerStyle() || !samePrice(old.price(), changed.price())
+        || !Objects.equals(old.quantityOnHand(), changed.quantityOnHand())) {
+      beerCatalogStats.changed(old, changed);
+    }
+  }
+
+  private static boolean samePrice(BigDecimal a, BigDecimal b) {
+    return a == null ? b == null : b != null && a.compareTo(b) == 0;
+  }
+
+  private static BeerFigures figuresOf(Beer beer) {
+    return new BeerFigures(beer.getId(), beer.getBeerStyle(), beer.getPrice(), beer.getQuantityOnHand());
+  }
+
+  private static BeerFigures figuresOf(BeerDTO beer) {
+    return new BeerFigures(beer.getId(), beer.getBeerStyle(), beer.getPrice(), beer.getQuantityOnHand());
+  }
+
+  /**
+   * Issues a single {@code UPDATE beer SET <columns>, version = version + 1
+   * WHERE id = ? [AND version = ?]} without reading the row first. Only when
+   * nothing was updated is the row looked up, to tell a missing beer from a
+   * version conflict.
+   *
+   * @param columns sets the columns to update, returns {@code false} if there
+   *                are none
+   * @return the version the beer is at now, as described for
+   *         {@link BeerService#updateById}
+   */
+  private Optional<VersionStamp> updateColumns(UUID beerId, Integer expectedVersion,
+      BiPredicate<CriteriaUpdate<Beer>, Root<Beer>> columns) {
+
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<Beer> update = cb.createCriteriaUpdate(Beer.class);
+    Root<Beer> root = update.from(Beer.class);
+
+    int updated = 0;
+    LocalDateTime updatedDate = LocalDateTime.now();
+    if (columns.test(update, root)) {
+      Path<Integer> version = root.get("version");
+      update.set(version, cb.sum(version, 1));
+      update.set(root.<LocalDateTime>get("updatedDate"), updatedDate);
+
+      Predicate where = cb.equal(root.get("id"), beerId);
+      if (expectedVersion != null) {
+        where = cb.and(where, cb.equal(version, expectedVersion));
+      }
+      update.where(where);
+
+      // the bulk update bypasses the persistence context: flush pending changes
+      // first and drop any managed copy of the beer afterwards so it is re-read
+      entityManager.flush();
+      updated = entityManager.createQuery(update).executeUpdate();
+      entityManager.detach(entityManager.getReference(Beer.class, beerId));
+    }
+
+    if (updated > 0) {
+      // only a conditional update knows the version it bumped without reading it back
+      return Optional.of(new VersionStamp(beerId, expectedVersion == null ? null : expectedVersion + 1, updatedDate));
+    }
+
+    // nothing to update, or nothing matched: the current version, if any, still stands
+    Optional<VersionStamp> current = beerRepository.findVersionById(beerId);
+    if (current.isPresent() && expectedVersion != null && !expectedVersion.equals(current.get().version())) {
+      throw new OptimisticLockingFailureException("Beer " + beerId + " is not at version " + expectedVersion);
+    }
+    return current;
   }
 
 }
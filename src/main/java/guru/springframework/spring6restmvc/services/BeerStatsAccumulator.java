@@ -0,0 +1,213 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import guru.springframework.spring6restmvc.model.BeerStats;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.BeerStyleTotals;
+
+/**
+ * Catalog aggregates in primitive arrays indexed by {@link BeerStyle#ordinal()},
+ * so a snapshot is a copy of a few ten-element arrays. Prices are summed in
+ * cents.
+ * <p>
+ * Counts and sums follow every add and remove exactly. A minimum or maximum
+ * can't be taken back though: removing a style's cheapest or dearest beer
+ * marks its extremes stale, and they remain the last known bounds until the
+ * aggregates are replaced.
+ * <p>
+ * Changes made while SQL totals are being queried are recorded from
+ * {@link #beginReplace()} on and replayed onto those totals, so a
+ * reconciliation is never lost to concurrent writes. A change that committed
+ * just before the query started but was recorded after it may be counted
+ * twice; the next reconciliation corrects that.
+ */
+class BeerStatsAccumulator {
+
+  private static final BeerStyle[] STYLES = BeerStyle.values();
+
+  private final long[] beers = new long[STYLES.length];
+  private final long[] quantityOnHand = new long[STYLES.length];
+  private final long[] pricedBeers = new long[STYLES.length];
+  private final long[] priceSum = new long[STYLES.length];
+  private final long[] minPrice = new long[STYLES.length];
+  private final long[] maxPrice = new long[STYLES.length];
+  private final boolean[] staleExtremes = new boolean[STYLES.length];
+  // changes to replay onto the totals being queried, null when no replace is under way
+  private List<Runnable> pending;
+
+  BeerStatsAccumulator() {
+    Arrays.fill(minPrice, Long.MAX_VALUE);
+    Arrays.fill(maxPrice, Long.MIN_VALUE);
+  }
+
+  synchronized void add(BeerStyle beerStyle, BigDecimal price, Integer quantity) {
+    if (beerStyle != null) {
+      record(() -> applyAdd(beerStyle.ordinal(), price, quantity));
+    }
+  }
+
+  synchronized void remove(BeerStyle beerStyle, BigDecimal price, Integer quantity) {
+    if (beerStyle != null) {
+      record(() -> applyRemove(beerStyle.ordinal(), price, quantity));
+    }
+  }
+
+  synchronized void addQuantity(BeerStyle beerStyle, long delta) {
+    if (beerStyle != null) {
+      record(() -> quantityOnHand[beerStyle.ordinal()] += delta);
+    }
+  }
+
+  private void record(Runnable change) {
+    change.run();
+    if (pending != null) {
+      pending.add(change);
+    }
+  }
+
+  private void applyAdd(int style, BigDecimal price, Integer quantity) {
+    beers[style]++;
+    quantityOnHand[style] += quantity == null ? 0 : quantity;
+    if (price != null) {
+      long cents = toCents(price);
+      pricedBeers[style]++;
+      priceSum[style] += cents;
+      minPrice[style] = Math.min(minPrice[style], cents);
+      maxPrice[style] = Math.max(maxPrice[style], cents);
+    }
+  }
+
+  private void applyRemove(int style, BigDecimal price, Integer quantity) {
+    beers[style]--;
+    quantityOnHand[style] -= quantity == null ? 0 : quantity;
+    if (price != null) {
+      long cents = toCents(price);
+      pricedBeers[style]--;
+      priceSum[style] -= cents;
+      if (pricedBeers[style] <= 0) {
+        minPrice[style] = Long.MAX_VALUE;
+        maxPrice[style] = Long.MIN_VALUE;
+        staleExtremes[style] = false;
+      } else if (cents <= minPrice[style] || cents >= maxPrice[style]) {
+        staleExtremes[style] = true;
+      }
+    }
+  }
+
+  synchronized boolean hasStaleExtremes() {
+    for (boolean stale : staleExtremes) {
+      if (stale) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Starts recording changes for a {@link #replace(Collection)} with totals
+   * queried from now on.
+   */
+  synchronized void beginReplace() {
+    pending = new ArrayList<>();
+  }
+
+  /**
+   * Drops the changes recorded for a replace whose totals could not be queried.
+   */
+  synchronized void abortReplace() {
+    pending = null;
+  }
+
+  /**
+   * Replaces the aggregates with SQL totals and replays the changes recorded
+   * since {@link #beginReplace()} onto them.
+   */
+  synchronized void replace(Collection<BeerStyleTotals> totals) {
+    Arrays.fill(beers, 0);
+    Arrays.fill(quantityOnHand, 0);
+    Arrays.fill(pricedBeers, 0);
+    Arrays.fill(priceSum, 0);
+    Arrays.fill(minPrice, Long.MAX_VALUE);
+    Arrays.fill(maxPrice, Long.MIN_VALUE);
+    Arrays.fill(staleExtremes, false);
+
+    for (BeerStyleTotals styleTotals : totals) {
+      if (styleTotals.beerStyle() == null || styleTotals.beers() == null || styleTotals.beers() == 0) {
+        continue;
+      }
+      int style = styleTotals.beerStyle().ordinal();
+      beers[style] = styleTotals.beers();
+      quantityOnHand[style] = styleTotals.quantityOnHand() == null ? 0 : styleTotals.quantityOnHand();
+      if (styleTotals.priceSum() != null) {
+        // price is not null in the schema, so every counted beer is priced
+        pricedBeers[style] = styleTotals.beers();
+        priceSum[style] = toCents(styleTotals.priceSum());
+        minPrice[style] = toCents(styleTotals.minPrice());
+        maxPrice[style] = toCents(styleTotals.maxPrice());
+      }
+    }
+
+    if (pending != null) {
+      pending.forEach(Runnable::run);
+      pending = null;
+    }
+  }
+
+  synchronized BeerStats snapshot() {
+    List<BeerStats.StyleStats> styles = new ArrayList<>(STYLES.length);
+    long totalBeers = 0;
+    long totalQuantityOnHand = 0;
+    long totalPriced = 0;
+    long totalPriceSum = 0;
+    long totalMin = Long.MAX_VALUE;
+    long totalMax = Long.MIN_VALUE;
+
+    for (BeerStyle beerStyle : STYLES) {
+      int style = beerStyle.ordinal();
+      styles.add(BeerStats.StyleStats.builder()
+          .beerStyle(beerStyle)
+          .beers(beers[style])
+          .quantityOnHand(quantityOnHand[style])
+          .minPrice(pricedBeers[style] > 0 ? toPrice(minPrice[style]) : null)
+          .avgPrice(average(priceSum[style], pricedBeers[style]))
+          .maxPrice(pricedBeers[style] > 0 ? toPrice(maxPrice[style]) : null)
+          .build());
+
+      totalBeers += beers[style];
+      totalQuantityOnHand += quantityOnHand[style];
+      if (pricedBeers[style] > 0) {
+        totalPriced += pricedBeers[style];
+        totalPriceSum += priceSum[style];
+        totalMin = Math.min(totalMin, minPrice[style]);
+        totalMax = Math.max(totalMax, maxPrice[style]);
+      }
+    }
+
+    return BeerStats.builder()
+        .beers(totalBeers)
+        .quantityOnHand(totalQuantityOnHand)
+        .minPrice(totalPriced > 0 ? toPrice(totalMin) : null)
+        .avgPrice(average(totalPriceSum, totalPriced))
+        .maxPrice(totalPriced > 0 ? toPrice(totalMax) : null)
+        .styles(styles)
+        .build();
+  }
+
+  private static long toCents(BigDecimal price) {
+    return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+  }
+
+  private static BigDecimal toPrice(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+
+  private static BigDecimal average(long cents, long count) {
+    return count > 0 ? toPrice(cents).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : null;
+  }
+}
@@ -1,17 +1,30 @@
 package guru.springframework.spring6restmvc.services;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
+
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.CustomerCursor;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 
 public interface CustomerService {
 
-  List<CustomerDTO> listCustomers();
+  /**
+   * @param customerName case-insensitive substring of the name, or {@code null}
+   * @param email        prefix of the email, or {@code null}
+   */
+  Page<CustomerDTO> listCustomers(String customerName, String email, Integer pageNumber, Integer pageSize);
+
+  CursorPage<CustomerDTO> listCustomersAfter(String customerName, String email, CustomerCursor after,
+      Integer pageSize);
 
   Optional<CustomerDTO> getCustomerById(UUID id);
 
+  Optional<VersionStamp> getCustomerVersion(UUID id);
+
   CustomerDTO saveNewCustomer(CustomerDTO customer);
 
   Optional<CustomerDTO> updateById(UUID customerId, CustomerDTO customer);
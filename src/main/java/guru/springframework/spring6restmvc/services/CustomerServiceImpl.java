@@ -2,20 +2,29 @@ package guru.springframework.spring6restmvc.services;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.CustomerCursor;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+  private static final Comparator<CustomerDTO> NAME_ORDER = Comparator.comparing(CustomerDTO::getCustomerName)
+      .thenComparing(CustomerDTO::getId);
+
   private Map<UUID, CustomerDTO> customerMap;
 
   public CustomerServiceImpl() {
@@ -42,8 +51,50 @@ public class CustomerServiceImpl implements CustomerService {
   }
 
   @Override
-  public List<CustomerDTO> listCustomers() {
-    return new ArrayList<>(customerMap.values());
+  public Page<CustomerDTO> listCustomers(String customerName, String email, Integer pageNumber, Integer pageSize) {
+    return new PageImpl<>(customerMap.values().stream()
+        .filter(customer -> matches(customer, customerName, email))
+        .sorted(NAME_ORDER)
+        .toList());
+  }
+
+  @Override
+  public CursorPage<CustomerDTO> listCustomersAfter(String customerName, String email, CustomerCursor after,
+      Integer pageSize) {
+    int size = pageSize == null || pageSize <= 0 ? 25 : Math.min(pageSize, 1000);
+    CustomerDTO afterKey = after == null ? null
+        : CustomerDTO.builder().customerName(after.customerName()).id(after.id()).build();
+
+    List<CustomerDTO> matches = customerMap.values().stream()
+        .filter(customer -> matches(customer, customerName, email))
+        .filter(customer -> afterKey == null || NAME_ORDER.compare(customer, afterKey) > 0)
+        .sorted(NAME_ORDER)
+        .limit(size + 1)
+        .toList();
+
+    List<CustomerDTO> content = new ArrayList<>(matches.subList(0, Math.min(size, matches.size())));
+    String nextCursor = null;
+    if (matches.size() > size) {
+      CustomerDTO last = content.get(content.size() - 1);
+      nextCursor = new CustomerCursor(last.getCustomerName(), last.getId()).encode();
+    }
+
+    return CursorPage.<CustomerDTO>builder()
+        .content(content)
+        .size(content.size())
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  /**
+   * The filters CustomerServiceJPA queries with: the name contains
+   * {@code customerName}, ignoring case, and the email starts with
+   * {@code email}. Blank filters match every customer.
+   */
+  private static boolean matches(CustomerDTO customer, String customerName, String email) {
+    return (!StringUtils.hasText(customerName)
+        || customer.getCustomerName().toLowerCase().contains(customerName.toLowerCase()))
+        && (!StringUtils.hasText(email) || (customer.getEmail() != null && customer.getEmail().startsWith(email)));
   }
 
   @Override
@@ -51,11 +102,18 @@ public class CustomerServiceImpl implements CustomerService {
     return Optional.of(customerMap.get(id));
   }
 
+  @Override
+  public Optional<VersionStamp> getCustomerVersion(UUID id) {
+    return Optional.ofNullable(customerMap.get(id))
+        .map(customer -> new VersionStamp(customer.getId(), customer.getVersion(), customer.getUpdatedDate()));
+  }
+
   @Override
   public CustomerDTO saveNewCustomer(CustomerDTO customer) {
     CustomerDTO savedCustomer = CustomerDTO.builder()
         .id(UUID.randomUUID())
         .customerName(customer.getCustomerName())
+        .email(customer.getEmail())
         .version(1)
         .createdDate(LocalDateTime.now())
         .updatedDate(LocalDateTime.now())
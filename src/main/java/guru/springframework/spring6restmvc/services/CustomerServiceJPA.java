@@ -1,18 +1,29 @@
 package guru.springframework.spring6restmvc.services;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import guru.springframework.spring6restmvc.config.ReplicaRoutingDataSource;
 import guru.springframework.spring6restmvc.entities.Customer;
 import guru.springframework.spring6restmvc.mappers.CustomerMapper;
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.CustomerCursor;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 
@@ -23,28 +34,121 @@ public class CustomerServiceJPA implements CustomerService {
 
   private final CustomerRepository customerRepository;
   private final CustomerMapper customerMapper;
+  private final DtoCache<CustomerDTO> customerDtoCache;
+  private final DbBulkhead dbBulkhead;
+
+  private final static int DEFAULT_PAGE_NUMBER = 0;
+  private final static int DEFAULT_PAGE_SIZE = 25;
+  private final static int MAX_PAGE_SIZE = 1000;
+
+  public PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
+    if (pageNumber == null || pageNumber <= 0)
+      pageNumber = DEFAULT_PAGE_NUMBER;
+
+    // id breaks ties so equal names page deterministically, matching ix_customer_name_id
+    Sort sort = Sort.by(Sort.Order.asc("customerName"), Sort.Order.asc("id"));
+
+    return PageRequest.of(pageNumber, resolvePageSize(pageSize), sort);
+  }
+
+  private static int resolvePageSize(Integer pageSize) {
+    if (pageSize == null || pageSize <= 0)
+      return DEFAULT_PAGE_SIZE;
+
+    return Math.min(pageSize, MAX_PAGE_SIZE);
+  }
 
   @Override
-  public List<CustomerDTO> listCustomers() {
-    return customerRepository.findAll()
-        .stream()
-        .map(customerMapper::customerToCustomerDTO)
-        .collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public Page<CustomerDTO> listCustomers(String customerName, String email, Integer pageNumber, Integer pageSize) {
+    PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+
+    Page<Customer> customerPage;
+
+    if (StringUtils.hasText(customerName) && StringUtils.hasText(email)) {
+      customerPage = customerRepository.findAllByCustomerNameIsLikeIgnoreCaseAndEmailStartingWith(
+          "%" + customerName + "%", email, pageRequest);
+    } else if (StringUtils.hasText(customerName)) {
+      customerPage = customerRepository.findAllByCustomerNameIsLikeIgnoreCase("%" + customerName + "%",
+          pageRequest);
+    } else if (StringUtils.hasText(email)) {
+      customerPage = customerRepository.findAllByEmailStartingWith(email, pageRequest);
+    } else {
+      customerPage = customerRepository.findAll(pageRequest);
+    }
+
+    return customerPage.map(customerMapper::customerToCustomerDTO);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPage<CustomerDTO> listCustomersAfter(String customerName, String email, CustomerCursor after,
+      Integer pageSize) {
+
+    Limit limit = Limit.of(resolvePageSize(pageSize));
+    ScrollPosition position = after == null
+        ? ScrollPosition.keyset()
+        : ScrollPosition.forward(Map.of("customerName", after.customerName(), "id", after.id()));
+
+    Window<Customer> customerWindow;
+
+    if (StringUtils.hasText(customerName) && StringUtils.hasText(email)) {
+      customerWindow = customerRepository
+          .findAllByCustomerNameIsLikeIgnoreCaseAndEmailStartingWithOrderByCustomerNameAscIdAsc(
+              "%" + customerName + "%", email, position, limit);
+    } else if (StringUtils.hasText(customerName)) {
+      customerWindow = customerRepository.findAllByCustomerNameIsLikeIgnoreCaseOrderByCustomerNameAscIdAsc(
+          "%" + customerName + "%", position, limit);
+    } else if (StringUtils.hasText(email)) {
+      customerWindow = customerRepository.findAllByEmailStartingWithOrderByCustomerNameAscIdAsc(email, position,
+          limit);
+    } else {
+      customerWindow = customerRepository.findAllByOrderByCustomerNameAscIdAsc(position, limit);
+    }
+
+    List<CustomerDTO> content = customerWindow.map(customerMapper::customerToCustomerDTO).getContent();
+
+    String nextCursor = null;
+    if (customerWindow.hasNext() && !content.isEmpty()) {
+      CustomerDTO last = content.get(content.size() - 1);
+      nextCursor = new CustomerCursor(last.getCustomerName(), last.getId()).encode();
+    }
+
+    return CursorPage.<CustomerDTO>builder()
+        .content(content)
+        .size(content.size())
+        .nextCursor(nextCursor)
+        .build();
   }
 
   @Override
   public Optional<CustomerDTO> getCustomerById(UUID id) {
-    return Optional.ofNullable(customerMapper.customerToCustomerDTO(customerRepository.findById(id).orElse(null)));
+    // not transactional, a cache hit takes neither a bulkhead permit nor a connection; a
+    // miss reads the primary, a lagging replica would cache the row from before a write
+    return customerDtoCache.get(id, customerId -> dbBulkhead.call(() -> ReplicaRoutingDataSource.onPrimary(
+        () -> Optional.ofNullable(
+            customerMapper.customerToCustomerDTO(customerRepository.findById(customerId).orElse(null))))));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<VersionStamp> getCustomerVersion(UUID id) {
+    return customerRepository.findVersionById(id);
   }
 
   @Override
   public CustomerDTO saveNewCustomer(CustomerDTO customer) {
-    return customerMapper
+    CustomerDTO savedCustomer = customerMapper
         .customerToCustomerDTO(customerRepository.save(customerMapper.customerDtoToCustomer(customer)));
+    customerDtoCache.put(savedCustomer.getId(), savedCustomer);
+    return savedCustomer;
   }
 
   @Override
+  @Transactional
   public Optional<CustomerDTO> updateById(UUID customerId, CustomerDTO customer) {
+    customerDtoCache.evict(customerId);
+
     AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>(Optional.empty());
     customerRepository.findById(customerId).ifPresentOrElse(customerEntity -> {
       customerEntity.setCustomerName(customer.getCustomerName());
@@ -58,17 +162,18 @@ public class CustomerServiceJPA implements CustomerService {
   }
 
   @Override
+  @Transactional
   public boolean deleteById(UUID customerId) {
-    if (customerRepository.existsById(customerId)) {
-      customerRepository.deleteById(customerId);
-      return true;
-    }
-    return false;
+    customerDtoCache.evict(customerId);
 
+    return customerRepository.deleteRowById(customerId) > 0;
   }
 
   @Override
+  @Transactional
   public Optional<CustomerDTO> patchById(UUID customerId, CustomerDTO customer) {
+    customerDtoCache.evict(customerId);
+
     AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
     customerRepository.findById(customerId).ifPresentOrElse(existing -> {
       if (StringUtils.hasText(customer.getCustomerName())) {
@@ -0,0 +1,174 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Admission control in front of the connection pool. At most one caller per
+ * pooled connection runs at a time, a bounded number wait in FIFO order and
+ * everyone else is turned away immediately with a
+ * {@link DbBulkheadFullException}, rather than piling up on Hikari until its
+ * connection timeout fires for all of them at once.
+ */
+@Component
+public class DbBulkhead {
+
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final int maxWaiting;
+  private final long maxWaitNanos;
+  private final Duration retryAfter;
+
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder queueNanos = new LongAdder();
+  private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+  public DbBulkhead(DataSource dataSource,
+      @Value("${app.db-bulkhead.max-concurrent:0}") int maxConcurrent,
+      @Value("${app.db-bulkhead.max-waiting:200}") int maxWaiting,
+      @Value("${app.db-bulkhead.max-wait:2s}") Duration maxWait,
+      @Value("${app.db-bulkhead.retry-after:1s}") Duration retryAfter) {
+    this.maxConcurrent = resolveMaxConcurrent(maxConcurrent, dataSource);
+    this.permits = new Semaphore(this.maxConcurrent, true);
+    this.maxWaiting = maxWaiting;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.retryAfter = retryAfter;
+  }
+
+  private static int resolveMaxConcurrent(int configured, DataSource dataSource) {
+    if (configured > 0) {
+      return configured;
+    }
+    return maximumPoolSize(dataSource, 10);
+  }
+
+  /**
+   * Size of the Hikari pool behind {@code dataSource}, looking through proxies
+   * such as the read/write routing one.
+   */
+  static int maximumPoolSize(DataSource dataSource, int fallback) {
+    try {
+      if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+      }
+    } catch (SQLException e) {
+      // not unwrappable, use the fallback
+    }
+    return fallback;
+  }
+
+  /**
+   * Blocks for up to the configured wait for a permit, which must be handed
+   * back with {@link #release()}.
+   *
+   * @throws DbBulkheadFullException if the wait queue is full or the wait
+   *                                 timed out
+   */
+  public void acquire() {
+    // a zero timeout rather than tryAcquire() so a caller arriving just as a
+    // permit frees up does not barge ahead of the ones already queued
+    if (tryAcquire(0)) {
+      admitted.increment();
+      return;
+    }
+
+    if (waiting.incrementAndGet() > maxWaiting) {
+      waiting.decrementAndGet();
+      reject();
+    }
+
+    long started = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = tryAcquire(maxWaitNanos);
+    } finally {
+      waiting.decrementAndGet();
+      long queued = System.nanoTime() - started;
+      queueNanos.add(queued);
+      maxQueueNanos.accumulate(queued);
+    }
+
+    if (!acquired) {
+      reject();
+    }
+    admitted.increment();
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+  /**
+   * Runs {@code action} holding a permit.
+   *
+   * @throws DbBulkheadFullException if no permit could be had
+   */
+  public <T> T call(Supplier<T> action) {
+    acquire();
+    try {
+      return action.get();
+    } finally {
+      release();
+    }
+  }
+
+  private boolean tryAcquire(long timeoutNanos) {
+    try {
+      return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DbBulkheadFullException(retryAfter);
+    }
+  }
+
+  private void reject() {
+    rejected.increment();
+    throw new DbBulkheadFullException(retryAfter);
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public int getActive() {
+    return maxConcurrent - permits.availablePermits();
+  }
+
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  public long getAdmitted() {
+    return admitted.sum();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  /**
+   * @return total time callers spent queued for a permit, admitted or not
+   */
+  public Duration getTotalQueueTime() {
+    return Duration.ofNanos(queueNanos.sum());
+  }
+
+  public Duration getMaxQueueTime() {
+    return Duration.ofNanos(maxQueueNanos.get());
+  }
+}
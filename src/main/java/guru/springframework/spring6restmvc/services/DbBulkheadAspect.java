@@ -0,0 +1,50 @@
+package guru.springframework.spring6restmvc.services;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs the JPA service calls that use the database through the
+ * {@link DbBulkhead}. Ordered ahead of the transaction interceptor so a permit
+ * is held before a connection is borrowed and released only after it has been
+ * returned.
+ * <p>
+ * The in-memory stats snapshot and page request building take no permit. The
+ * cached lookups by id take one through {@link DbBulkhead#call} on a cache
+ * miss only, so cache hits do not queue behind database work.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class DbBulkheadAspect {
+
+  private final DbBulkhead dbBulkhead;
+
+  @Pointcut("within(guru.springframework.spring6restmvc.services.BeerServiceJPA) "
+      + "|| within(guru.springframework.spring6restmvc.services.CustomerServiceJPA)")
+  void jpaService() {
+  }
+
+  @Pointcut("execution(* getBeerStats()) || execution(* getBeerById(..)) || execution(* getCustomerById(..)) "
+      + "|| execution(* buildPageRequest(..))")
+  void noDatabaseAccess() {
+  }
+
+  @Around("jpaService() && !noDatabaseAccess()")
+  public Object admit(ProceedingJoinPoint joinPoint) throws Throwable {
+    dbBulkhead.acquire();
+    try {
+      return joinPoint.proceed();
+    } finally {
+      dbBulkhead.release();
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.time.Duration;
+
+public class DbBulkheadFullException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public DbBulkheadFullException(Duration retryAfter) {
+    super("Database bulkhead is saturated");
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
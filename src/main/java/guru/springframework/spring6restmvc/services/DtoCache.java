@@ -0,0 +1,161 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Bounded cache of mapped DTOs keyed by entity id.
+ * <p>
+ * Writes inside a transaction only touch the cache once the transaction has
+ * completed, so rolled back changes are never served. An entry is only
+ * replaced by a value carrying the same or a newer {@code @Version}.
+ * <p>
+ * Every eviction leaves a tombstone with a generation number. A value loaded
+ * on a miss is only cached if its id has not been evicted since the load
+ * started. Without that, a reader that loaded version N just before a writer
+ * committed N+1 could cache N after the writer's eviction and serve it until
+ * it expires.
+ * A disabled cache passes every lookup straight through to the loader.
+ */
+public class DtoCache<T> {
+
+  private final Cache<UUID, T> cache;
+  private final Cache<UUID, Long> evictions;
+  private final ToIntFunction<T> versionOf;
+  private final AtomicLong generation = new AtomicLong();
+  // newest generation of a tombstone dropped for size or age, loads older than it are not cached
+  private final AtomicLong forgotten = new AtomicLong();
+
+  private DtoCache(long maximumSize, Duration ttl, ToIntFunction<T> versionOf) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    // a tombstone only has to outlive the loads in flight when it was written
+    this.evictions = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .<UUID, Long>evictionListener((id, evictedAt, cause) -> forgotten.accumulateAndGet(evictedAt, Math::max))
+        .build();
+    this.versionOf = versionOf;
+  }
+
+  private DtoCache() {
+    this.cache = null;
+    this.evictions = null;
+    this.versionOf = dto -> 0;
+  }
+
+  public static <T> DtoCache<T> of(long maximumSize, Duration ttl, ToIntFunction<T> versionOf) {
+    return new DtoCache<>(maximumSize, ttl, versionOf);
+  }
+
+  public static <T> DtoCache<T> disabled() {
+    return new DtoCache<>();
+  }
+
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  public Optional<T> get(UUID id, Function<UUID, Optional<T>> loader) {
+    if (cache == null || id == null) {
+      return loader.apply(id);
+    }
+
+    T cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    long loadStarted = generation.get();
+    Optional<T> loaded = loader.apply(id);
+    loaded.ifPresent(dto -> afterCompletion(() -> cacheLoaded(id, dto, loadStarted), true));
+    return loaded;
+  }
+
+  /**
+   * @return the cached value without loading it, empty if the cache is disabled
+   */
+  public Optional<T> getIfPresent(UUID id) {
+    return cache == null || id == null ? Optional.empty() : Optional.ofNullable(cache.getIfPresent(id));
+  }
+
+  public void put(UUID id, T dto) {
+    if (cache == null) {
+      return;
+    }
+
+    afterCompletion(() -> cache.asMap().merge(id, dto,
+        (existing, candidate) -> version(candidate) >= version(existing) ? candidate : existing), true);
+  }
+
+  public void evict(UUID id) {
+    if (cache == null) {
+      return;
+    }
+
+    // evict now so this thread stops serving the old value, and again once the
+    // transaction ends so loads that read the old row in between are not cached
+    invalidate(id);
+    afterCompletion(() -> invalidate(id), false);
+  }
+
+  public CacheStats stats() {
+    return cache == null ? CacheStats.empty() : cache.stats();
+  }
+
+  public Cache<UUID, T> nativeCache() {
+    return cache;
+  }
+
+  private void invalidate(UUID id) {
+    // tombstone and removal under the entry's lock, so cacheLoaded sees both or neither
+    cache.asMap().compute(id, (key, existing) -> {
+      evictions.put(key, generation.incrementAndGet());
+      return null;
+    });
+  }
+
+  private void cacheLoaded(UUID id, T dto, long loadStarted) {
+    cache.asMap().compute(id, (key, existing) -> {
+      Long evictedAt = evictions.getIfPresent(key);
+      if ((evictedAt != null && evictedAt > loadStarted) || forgotten.get() > loadStarted) {
+        return existing;
+      }
+      return existing == null || version(dto) >= version(existing) ? dto : existing;
+    });
+  }
+
+  private int version(T dto) {
+    return versionOf.applyAsInt(dto);
+  }
+
+  private static void afterCompletion(Runnable action, boolean onlyOnCommit) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (!onlyOnCommit || status == STATUS_COMMITTED) {
+          action.run();
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,23 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.util.UUID;
+
+public class InsufficientInventoryException extends RuntimeException {
+
+  private final UUID beerId;
+  private final int delta;
+
+  public InsufficientInventoryException(UUID beerId, int delta) {
+    super("Adjusting beer " + beerId + " by " + delta + " would make its quantity on hand negative");
+    this.beerId = beerId;
+    this.delta = delta;
+  }
+
+  public UUID getBeerId() {
+    return beerId;
+  }
+
+  public int getDelta() {
+    return delta;
+  }
+}
@@ -0,0 +1,237 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-behind for inventory adjustments. Deltas are summed per beer
+ * in a {@link LongAdder}, so concurrent terminals selling the same beer never
+ * contend on its row, and the net delta of every beer is written on a short
+ * interval, a batch of beers per transaction.
+ * <p>
+ * Sales are checked when they are queued: a negative delta is only accepted
+ * if the beer's committed stock plus every delta still pending covers it, so
+ * an accepted sale is not dropped for lack of stock at flush time. A pending
+ * sale keeps holding its stock until its flush commits, while a pending
+ * restock only counts once it is written, which keeps the check on the safe
+ * side while a flush is under way. Stock changed outside the coalescer, by a
+ * full update or patch, can still make a net delta fail at flush time; it is
+ * then dropped as a whole and counted in {@link #getRejected()}. Deltas of a
+ * batch that fails to commit are put back and retried on the next flush.
+ */
+@Slf4j
+@Component
+public class InventoryDeltaCoalescer implements DisposableBean {
+
+  private final BeerRepository beerRepository;
+  private final DtoCache<BeerDTO> beerDtoCache;
+  private final BeerCatalogStats beerCatalogStats;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int batchSize;
+  private final ScheduledExecutorService flusher;
+
+  // entries are never removed, so an adder cannot be dropped while a request is adding to it
+  private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder applied = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder flushes = new LongAdder();
+
+  public InventoryDeltaCoalescer(BeerRepository beerRepository, DtoCache<BeerDTO> beerDtoCache,
+      BeerCatalogStats beerCatalogStats, PlatformTransactionManager transactionManager,
+      @Value("${app.inventory.coalesce.enabled:false}") boolean enabled,
+      @Value("${app.inventory.coalesce.flush-interval:100ms}") Duration flushInterval,
+      @Value("${app.inventory.coalesce.batch-size:500}") int batchSize) {
+    this.beerRepository = beerRepository;
+    this.beerDtoCache = beerDtoCache;
+    this.beerCatalogStats = beerCatalogStats;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+
+    if (enabled) {
+      this.flusher = new ScheduledThreadPoolExecutor(1, Thread.ofVirtual().name("inventory-flush").factory());
+      this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    } else {
+      this.flusher = null;
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Queues a delta for the next flush.
+   *
+   * @param quantityOnHand reads the beer's committed quantity on hand, empty
+   *                       if there is no such beer
+   * @return {@code false} if there is no such beer
+   * @throws InsufficientInventoryException if the delta would take the
+   *                                        beer's stock below zero
+   */
+  public boolean add(UUID beerId, int delta, Supplier<Optional<Integer>> quantityOnHand) {
+    if (delta >= 0) {
+      // a restock cannot fail anyone's check, so it needs neither the stock nor the lock
+      if (quantityOnHand.get().isEmpty()) {
+        return false;
+      }
+      pending.computeIfAbsent(beerId, id -> new LongAdder()).add(delta);
+    } else {
+      LongAdder adder = pending.computeIfAbsent(beerId, id -> new LongAdder());
+      // checked and added under the beer's lock, so two sales cannot both take the last of its stock
+      synchronized (adder) {
+        Optional<Integer> committed = quantityOnHand.get();
+        if (committed.isEmpty()) {
+          return false;
+        }
+        if (committed.get() + adder.sum() + delta < 0) {
+          throw new InsufficientInventoryException(beerId, delta);
+        }
+        adder.add(delta);
+      }
+    }
+    submitted.increment();
+    return true;
+  }
+
+  /**
+   * Writes the net delta of every beer with pending adjustments.
+   *
+   * @return the number of beers updated
+   */
+  public synchronized int flush() {
+    List<UUID> beerIds = new ArrayList<>();
+    List<Integer> deltas = new ArrayList<>();
+
+    pending.forEach((beerId, adder) -> {
+      synchronized (adder) {
+        long sum = adder.sum();
+        if (sum != 0) {
+          // a net delta beyond the column's range is written in int sized steps
+          int delta = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, sum));
+          if (delta > 0) {
+            adder.add(-delta);
+          }
+          beerIds.add(beerId);
+          deltas.add(delta);
+        }
+      }
+    });
+
+    int updated = 0;
+    for (int from = 0; from < beerIds.size(); from += batchSize) {
+      int to = Math.min(from + batchSize, beerIds.size());
+      updated += flushBatch(beerIds.subList(from, to), deltas.subList(from, to));
+    }
+
+    flushes.increment();
+    return updated;
+  }
+
+  private int flushBatch(List<UUID> beerIds, List<Integer> deltas) {
+    Map<UUID, Integer> appliedDeltas = new HashMap<>();
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < beerIds.size(); i++) {
+          beerDtoCache.evict(beerIds.get(i));
+          if (beerRepository.addToQuantityOnHand(beerIds.get(i), deltas.get(i), now) > 0) {
+            appliedDeltas.put(beerIds.get(i), deltas.get(i));
+          }
+        }
+        // the statistics need each beer's style; recorded when the batch commits
+        if (!appliedDeltas.isEmpty()) {
+          beerRepository.findFiguresByIdIn(appliedDeltas.keySet()).forEach(beer ->
+              beerCatalogStats.quantityAdjusted(beer.beerStyle(), appliedDeltas.get(beer.id())));
+        }
+      });
+    } catch (RuntimeException e) {
+      log.warn("Inventory flush of {} beers failed, retrying on the next flush", beerIds.size(), e);
+      for (int i = 0; i < beerIds.size(); i++) {
+        if (deltas.get(i) > 0) {
+          pending.get(beerIds.get(i)).add(deltas.get(i));
+        }
+      }
+      return 0;
+    }
+
+    // counted once committed, a batch rolled back and retried would count its rejections again
+    for (int i = 0; i < beerIds.size(); i++) {
+      UUID beerId = beerIds.get(i);
+      int delta = deltas.get(i);
+      if (!appliedDeltas.containsKey(beerId)) {
+        log.warn("Dropped inventory delta {} for beer {}: unknown beer or insufficient stock", delta, beerId);
+        rejected.increment();
+      }
+      if (delta < 0) {
+        // the sale has been written or dropped, it no longer holds any stock
+        LongAdder adder = pending.get(beerId);
+        synchronized (adder) {
+          adder.add(-delta);
+        }
+      }
+    }
+    applied.add(appliedDeltas.size());
+    return appliedDeltas.size();
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warn("Inventory flush failed", e);
+    }
+  }
+
+  public long getSubmitted() {
+    return submitted.sum();
+  }
+
+  /**
+   * Number of per-beer net deltas written.
+   */
+  public long getApplied() {
+    return applied.sum();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  public long getFlushes() {
+    return flushes.sum();
+  }
+
+  @Override
+  public void destroy() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+      flush();
+    }
+  }
+}
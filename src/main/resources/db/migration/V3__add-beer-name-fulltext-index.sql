@@ -0,0 +1,2 @@
+alter table beer
+add fulltext index ft_beer_name (beer_name) with parser ngram;
@@ -0,0 +1,19 @@
+    alter table beer add column id_bin binary(16);
+
+    update beer set id_bin = unhex(replace(id, '-', ''));
+
+    alter table beer
+        drop primary key,
+        drop column id,
+        change column id_bin id binary(16) not null,
+        add primary key (id);
+
+    alter table customer add column id_bin binary(16);
+
+    update customer set id_bin = unhex(replace(id, '-', ''));
+
+    alter table customer
+        drop primary key,
+        drop column id,
+        change column id_bin id binary(16) not null,
+        add primary key (id);
@@ -0,0 +1,3 @@
+create index ix_customer_name_id on customer (customer_name, id);
+
+create index ix_customer_email on customer (email);
@@ -0,0 +1,5 @@
+create index ix_beer_name_id on beer (beer_name, id);
+
+create index ix_beer_style_name_id on beer (beer_style, beer_name, id);
+
+create index ix_beer_upc on beer (upc);
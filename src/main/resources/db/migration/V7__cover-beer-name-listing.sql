@@ -0,0 +1,6 @@
+-- covers the listing projections, so name-ordered pages, keyset seeks and
+-- skipped offset rows are read from the index without a row lookup each
+create index ix_beer_name_listing on beer (beer_name, id, beer_style, upc, price, quantity_on_hand, version,
+    created_date, updated_date);
+
+drop index ix_beer_name_id on beer;
@@ -0,0 +1,9 @@
+-- the keyset seeks, counts and inventory listings walk the narrow name index
+create index ix_beer_name_id on beer (beer_name, id);
+
+-- V7's listing index copied every column of the row; cover the default
+-- listing only, which leaves quantity_on_hand out
+drop index ix_beer_name_listing on beer;
+
+create index ix_beer_name_listing on beer (beer_name, id, beer_style, upc, price, version, created_date,
+    updated_date);
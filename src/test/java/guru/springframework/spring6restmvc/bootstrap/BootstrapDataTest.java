@@ -1,20 +1,34 @@
 package guru.springframework.spring6restmvc.bootstrap;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
-import guru.springframework.spring6restmvc.services.BeerCsvService;
+import guru.springframework.spring6restmvc.services.BeerCsvIngestService;
+import guru.springframework.spring6restmvc.services.BeerCatalogStats;
+import guru.springframework.spring6restmvc.services.BeerCsvIngestServiceImpl;
 import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
 
+// the CSV writers commit on their own threads, so the seeding cannot be rolled back; drop the context and its
+// database afterwards instead of leaving 2413 beers to the other tests sharing it
+@DirtiesContext
 @DataJpaTest
-@Import(BeerCsvServiceImpl.class)
+@Import({ BeerCsvServiceImpl.class, BeerCsvIngestServiceImpl.class, BeerCatalogStats.class })
 public class BootstrapDataTest {
 
   @Autowired
@@ -24,20 +38,50 @@ public class BootstrapDataTest {
   CustomerRepository customerRepository;
 
   @Autowired
-  BeerCsvService beerCsvService;
+  BeerCsvIngestService beerCsvIngestService;
 
   BootstrapData bootstrapData;
 
   @BeforeEach
   void setUp() {
-    bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCsvService);
+    bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCsvIngestService, true, true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    bootstrapData.destroy();
+  }
+
+  @Test
+  void testRun() {
+    bootstrapData.seed();
+
+    assertThat(beerRepository.count()).isEqualTo(2413);
+    assertThat(customerRepository.count()).isEqualTo(2);
   }
 
+  // the writers commit on their own threads, the deletes have to be committed for them to see
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   @Test
-  void testRun() throws Exception {
-    bootstrapData.run();
+  void testSeedAgainOnlyRestoresWhatIsMissing() {
+    bootstrapData.seed();
+    beerRepository.deleteAll(beerRepository.findAllByUpcIn(List.of("123456", "1", "2", "3")));
+
+    bootstrapData.seed();
 
     assertThat(beerRepository.count()).isEqualTo(2413);
+    assertThat(beerRepository.findAllByUpcIn(List.of("123456", "1", "2", "3"))).hasSize(4);
     assertThat(customerRepository.count()).isEqualTo(2);
   }
+
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  @Test
+  void testOutOfServiceUntilSeeded() {
+    assertThat(bootstrapData.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+    bootstrapData.onApplicationReady();
+
+    await().atMost(Duration.ofSeconds(30)).until(() -> bootstrapData.health().getStatus().equals(Status.UP));
+    assertThat(beerRepository.count()).isEqualTo(2413);
+  }
 }
@@ -0,0 +1,51 @@
+package guru.springframework.spring6restmvc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import guru.springframework.spring6restmvc.controllers.BeerController;
+import guru.springframework.spring6restmvc.controllers.CustomerController;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsConfigTest {
+
+  // the auto-configured MockMvc runs the servlet filters, including the one timing http.server.requests
+  @Autowired
+  MockMvc mockMvc;
+
+  @Test
+  void testPrometheusScrape() throws Exception {
+    mockMvc.perform(get(BeerController.BEER_PATH)).andExpect(status().isOk());
+    mockMvc.perform(get(CustomerController.CUSTOMER_PATH)).andExpect(status().isOk());
+
+    String scrape = mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    assertThat(scrape)
+        .contains("http_server_requests_seconds_bucket{")
+        .contains("uri=\"" + BeerController.BEER_PATH + "\"")
+        .contains("uri=\"" + CustomerController.CUSTOMER_PATH + "\"")
+        .contains("hikaricp_connections_active{")
+        .contains("hikaricp_connections_pending{")
+        .contains("hikaricp_connections_acquire_seconds_bucket{")
+        .contains("hibernate_query_executions_total{")
+        .contains("hibernate_entities_loads_total{")
+        .contains("hibernate_flushes_total{")
+        .contains("jvm_gc_memory_allocated_bytes_total{")
+        .contains("db_bulkhead_active{")
+        .contains("inventory_coalescer_submitted_total{")
+        .contains("cache_gets_total{")
+        .contains("http_server_requests_statements_count{");
+  }
+}
@@ -0,0 +1,177 @@
+package guru.springframework.spring6restmvc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.services.BeerService;
+import guru.springframework.spring6restmvc.services.DtoCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Primary and replica are the same in-memory H2 database here, so routing is
+ * observed through which pool has the connection checked out.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+    "app.datasource.replicas.enabled=true",
+    "app.datasource.replicas.urls=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+    "app.datasource.replicas.health-check-interval=1h"
+})
+class ReadReplicaRoutingTest {
+
+  @Autowired
+  ReplicaRoutingDataSource replicaRoutingDataSource;
+
+  @Autowired
+  ReadYourWritesFilter readYourWritesFilter;
+
+  @Autowired
+  BeerService beerService;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @Autowired
+  AsyncTaskExecutor applicationTaskExecutor;
+
+  @Autowired
+  DtoCache<BeerDTO> beerDtoCache;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  HikariDataSource primary;
+  HikariDataSource replica;
+
+  @BeforeEach
+  void setUp() {
+    primary = (HikariDataSource) replicaRoutingDataSource.getPrimary();
+    replica = replicaRoutingDataSource.getReplicas().get(0);
+    replicaRoutingDataSource.checkHealth();
+  }
+
+  @Test
+  void testReadOnlyTransactionUsesReplica() {
+    assertThat(replicaRoutingDataSource.isHealthy(0)).isTrue();
+
+    inTransaction(true, () -> {
+      beerService.listBeers(null, null, false, 1, 25);
+      assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+      assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isZero();
+    });
+  }
+
+  @Test
+  void testReadWriteTransactionUsesPrimary() {
+    inTransaction(false, () -> {
+      beerService.listBeers(null, null, false, 1, 25);
+      assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+      assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isZero();
+    });
+  }
+
+  @Test
+  void testPrimaryRequiredPinsReadsToPrimary() {
+    ReplicaRoutingDataSource.setPrimaryRequired(true);
+    try {
+      inTransaction(true, () -> {
+        beerService.listBeers(null, null, false, 1, 25);
+        assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+        assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isZero();
+      });
+    } finally {
+      ReplicaRoutingDataSource.setPrimaryRequired(false);
+    }
+  }
+
+  @Test
+  @DirtiesContext
+  void testUnhealthyReplicaFallsBackToPrimary() {
+    replica.close();
+    replicaRoutingDataSource.checkHealth();
+    assertThat(replicaRoutingDataSource.isHealthy(0)).isFalse();
+
+    inTransaction(true, () -> {
+      beerService.listBeers(null, null, false, 1, 25);
+      assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+    });
+  }
+
+  @Test
+  void testWriteMakesClientStickyToPrimary() throws Exception {
+    MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+    readYourWritesFilter.doFilter(new MockHttpServletRequest("POST", "/api/v1/beer"), writeResponse,
+        new MockFilterChain());
+
+    Cookie sticky = writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    assertThat(sticky).isNotNull();
+
+    AtomicBoolean primaryRequired = new AtomicBoolean();
+    MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/v1/beer");
+    read.setCookies(sticky);
+    readYourWritesFilter.doFilter(read, new MockHttpServletResponse(),
+        (request, response) -> primaryRequired.set(ReplicaRoutingDataSource.isPrimaryRequired()));
+
+    assertThat(primaryRequired).isTrue();
+    assertThat(ReplicaRoutingDataSource.isPrimaryRequired()).isFalse();
+  }
+
+  @Test
+  void testCacheMissLoadsFromPrimary() {
+    UUID beerId = beerService.listBeers(null, null, false, 1, 1).getContent().get(0).getId();
+    beerDtoCache.nativeCache().invalidate(beerId);
+    long replicaBorrows = borrows(replica);
+
+    // whatever a miss loads is served to every client, not just to those a replica is good enough for
+    assertThat(beerService.getBeerById(beerId)).isPresent();
+
+    assertThat(beerDtoCache.nativeCache().getIfPresent(beerId)).isNotNull();
+    assertThat(borrows(replica)).isEqualTo(replicaBorrows);
+  }
+
+  @Test
+  void testPrimaryRequiredCarriesOverToAsyncRequestProcessing() throws Exception {
+    Future<Boolean> primaryRequired;
+    ReplicaRoutingDataSource.setPrimaryRequired(true);
+    try {
+      // the executor MVC hands StreamingResponseBody and other async handlers to
+      primaryRequired = applicationTaskExecutor.submit(ReplicaRoutingDataSource::isPrimaryRequired);
+    } finally {
+      ReplicaRoutingDataSource.setPrimaryRequired(false);
+    }
+
+    assertThat(primaryRequired.get(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(applicationTaskExecutor.submit(ReplicaRoutingDataSource::isPrimaryRequired).get(10, TimeUnit.SECONDS))
+        .isFalse();
+  }
+
+  private long borrows(HikariDataSource pool) {
+    return meterRegistry.get("hikaricp.connections.usage").tag("pool", pool.getPoolName()).timer().count();
+  }
+
+  private void inTransaction(boolean readOnly, Runnable body) {
+    TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setReadOnly(readOnly);
+    template.executeWithoutResult(status -> body.run());
+  }
+}
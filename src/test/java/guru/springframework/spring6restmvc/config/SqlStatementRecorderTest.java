@@ -0,0 +1,49 @@
+package guru.springframework.spring6restmvc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import guru.springframework.spring6restmvc.config.SqlStatementRecorder.Recording;
+
+class SqlStatementRecorderTest {
+
+  SqlStatementRecorder recorder = new SqlStatementRecorder();
+
+  @Test
+  void testNormalizeFoldsParameterListsAndWhitespace() {
+    assertThat(SqlStatementRecorder.normalize("select b.id\n  from beer b where b.id in (?,?,?)"))
+        .isEqualTo(SqlStatementRecorder.normalize("select b.id from beer b where b.id in (?, ?)"))
+        .isEqualTo("select b.id from beer b where b.id in (?...)");
+  }
+
+  @Test
+  void testRecordingsNest() {
+    recorder.inspect("select 1");
+
+    try (Recording outer = SqlStatementRecorder.start()) {
+      recorder.inspect("select 2");
+      Recording inner = SqlStatementRecorder.record(() -> recorder.inspect("select 3"));
+      recorder.inspect("select 4");
+
+      assertThat(inner.statements()).containsExactly("select 3");
+      assertThat(outer.statements()).containsExactly("select 2", "select 3", "select 4");
+    }
+  }
+
+  @Test
+  void testRepeatedStatements() {
+    Recording recording = SqlStatementRecorder.record(() -> {
+      recorder.inspect("select * from beer");
+      for (int i = 1; i <= 4; i++) {
+        recorder.inspect("select * from beer_order where beer_id in (" + "?,".repeat(i) + "?)");
+      }
+    });
+
+    assertThat(recording.count()).isEqualTo(5);
+    assertThat(recording.repeatedMoreThan(3))
+        .isEqualTo(Map.of("select * from beer_order where beer_id in (?...)", 4));
+  }
+}
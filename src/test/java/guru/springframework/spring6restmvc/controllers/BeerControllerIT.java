@@ -2,41 +2,69 @@ package guru.springframework.spring6restmvc.controllers;
 
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.testcontainers.shaded.org.checkerframework.checker.units.qual.g;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import guru.springframework.spring6restmvc.config.SqlStatementRecorder;
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.mappers.BeerMapper;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStats;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CountMode;
+import guru.springframework.spring6restmvc.model.CursorPage;
+import guru.springframework.spring6restmvc.model.InventoryAdjustment;
+import guru.springframework.spring6restmvc.model.InventoryDelta;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.services.BeerCatalogStats;
+import guru.springframework.spring6restmvc.services.DbBulkhead;
+import guru.springframework.spring6restmvc.services.DtoCache;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.isNotNull;
 import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.core.Is.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 import org.hamcrest.core.IsNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import jakarta.persistence.EntityManager;
+
 @SpringBootTest
 public class BeerControllerIT {
 
@@ -49,9 +77,21 @@ public class BeerControllerIT {
   @Autowired
   BeerMapper beerMapper;
 
+  @Autowired
+  DtoCache<BeerDTO> beerDtoCache;
+
+  @Autowired
+  DbBulkhead dbBulkhead;
+
+  @Autowired
+  BeerCatalogStats beerCatalogStats;
+
   @Autowired
   ObjectMapper objectMapper;
 
+  @Autowired
+  EntityManager entityManager;
+
   @Autowired
   WebApplicationContext webApplicationContext;
 
@@ -76,6 +116,48 @@ public class BeerControllerIT {
 
   }
 
+  @Test
+  void testExportBeersNdjson() throws Exception {
+    MvcResult result = mockMvc.perform(get(BeerController.BEER_EXPORT_PATH)
+        .queryParam("beerName", "IPA")
+        .queryParam("beerStyle", BeerStyle.IPA.name()))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+
+    String body = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(BeerController.APPLICATION_NDJSON))
+        .andReturn().getResponse().getContentAsString();
+
+    List<String> lines = body.lines().toList();
+    assertThat(lines).hasSize(
+        (int) beerRepository.countByBeerNameIsLikeIgnoreCaseAndBeerStyle("%IPA%", BeerStyle.IPA));
+    BeerDTO first = objectMapper.readValue(lines.get(0), BeerDTO.class);
+    assertThat(first.getBeerStyle()).isEqualTo(BeerStyle.IPA);
+  }
+
+  @Test
+  void testExportBeersCsvGzip() throws Exception {
+    MvcResult result = mockMvc.perform(get(BeerController.BEER_EXPORT_PATH)
+        .queryParam("beerStyle", BeerStyle.PORTER.name())
+        .queryParam("format", "CSV")
+        .queryParam("gzip", "true"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    byte[] compressed = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      List<String> lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+      assertThat(lines.get(0)).startsWith("\"id\"");
+      assertThat(lines).hasSize((int) beerRepository.countByBeerStyle(BeerStyle.PORTER) + 1);
+    }
+  }
+
   @Test
   void testListBeersByStyleAndNameShowInventoryFalse() throws Exception {
     mockMvc.perform(get(BeerController.BEER_PATH)
@@ -130,6 +212,116 @@ public class BeerControllerIT {
         .andExpect(jsonPath("$.content.size()", is(548)));
   }
 
+  @Test
+  void testListBeersByStyleWithoutCount() throws Exception {
+    mockMvc.perform(get(BeerController.BEER_PATH)
+        .queryParam("beerStyle", BeerStyle.IPA.name())
+        .queryParam("countMode", CountMode.NONE.name())
+        .queryParam("pageNumber", "10")
+        .queryParam("pageSize", "50"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.size()", is(48)))
+        .andExpect(jsonPath("$.last", is(true)))
+        .andExpect(jsonPath("$.totalElements").doesNotExist());
+  }
+
+  @Test
+  void testListBeersByStyleWithApproximateCount() throws Exception {
+    mockMvc.perform(get(BeerController.BEER_PATH)
+        .queryParam("beerStyle", BeerStyle.IPA.name())
+        .queryParam("countMode", CountMode.APPROXIMATE.name())
+        .queryParam("pageSize", "50"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.size()", is(50)))
+        .andExpect(jsonPath("$.totalElements", is(548)));
+  }
+
+  @Test
+  void testListBeersByStyleWithCursor() {
+    Set<UUID> seen = new HashSet<>();
+    String after = "";
+    String previousName = "";
+
+    do {
+      CursorPage<BeerDTO> page = beerController.listBeersAfter(null, BeerStyle.IPA, true, after, 100);
+      for (BeerDTO beer : page.getContent()) {
+        assertThat(seen.add(beer.getId())).isTrue();
+        assertThat(beer.getBeerName()).isGreaterThanOrEqualTo(previousName);
+        previousName = beer.getBeerName();
+      }
+      after = page.getNextCursor();
+    } while (after != null);
+
+    assertThat(seen).hasSize(548);
+  }
+
+  @Test
+  void testListBeersByNameWithCursor() throws Exception {
+    mockMvc.perform(get(BeerController.BEER_PATH)
+        .queryParam("beerName", "IPA")
+        .queryParam("after", "")
+        .queryParam("pageSize", "50"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.size()", is(50)))
+        .andExpect(jsonPath("$.nextCursor").value(IsNull.notNullValue()));
+  }
+
+  @Test
+  void testListBeersWithBadCursor() throws Exception {
+    mockMvc.perform(get(BeerController.BEER_PATH)
+        .queryParam("after", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testBatchCreateAndUpdateBeers() throws Exception {
+    Beer existing = beerRepository.findAll().get(0);
+
+    List<Map<String, Object>> beers = List.of(
+        Map.of("beerName", "Batch Beer", "beerStyle", "IPA", "upc", "batch-1", "price", "9.99"),
+        Map.of("beerName", "Renamed", "beerStyle", "LAGER", "upc", existing.getUpc(), "price", "5.00"),
+        Map.of("beerName", "Missing Style", "upc", "batch-2", "price", "9.99"));
+
+    mockMvc.perform(post(BeerController.BEER_BATCH_PATH)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(beers)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", is(3)))
+        .andExpect(jsonPath("$[0].status", is("CREATED")))
+        .andExpect(jsonPath("$[1].status", is("UPDATED")))
+        .andExpect(jsonPath("$[1].id", is(existing.getId().toString())))
+        .andExpect(jsonPath("$[2].status", is("INVALID")))
+        .andExpect(jsonPath("$[2].errors.beerStyle").exists());
+
+    assertThat(beerRepository.findById(existing.getId()).get().getBeerName()).isEqualTo("Renamed");
+    assertThat(beerRepository.findAllByUpcIn(List.of("batch-1"))).hasSize(1);
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testBatchDeleteBeers() throws Exception {
+    List<Beer> beers = beerRepository.findAll().subList(0, 3);
+
+    mockMvc.perform(delete(BeerController.BEER_PATH)
+        .param("ids", beers.get(0).getId().toString(), beers.get(1).getId().toString(),
+            beers.get(0).getId().toString()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.requested", is(2)))
+        .andExpect(jsonPath("$.deleted", is(2)));
+
+    mockMvc.perform(post(BeerController.BEER_DELETE_BATCH_PATH)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(List.of(beers.get(1).getId(), beers.get(2).getId()))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.requested", is(2)))
+        .andExpect(jsonPath("$.deleted", is(1)));
+
+    assertThat(beerRepository.findAllById(beers.stream().map(Beer::getId).toList())).isEmpty();
+  }
+
   @Test
   void testPatchBeerWithBadName() throws Exception {
     Beer beer = beerRepository.findAll().get(0);
@@ -146,10 +338,73 @@ public class BeerControllerIT {
         .andReturn();
   }
 
+  @Test
+  void testPatchBeerIfMatch() throws Exception {
+    Beer beer = beerRepository.saveAndFlush(Beer.builder()
+        .beerName("If-Match Ale")
+        .beerStyle(BeerStyle.ALE)
+        .upc("if-match-1")
+        .price(new BigDecimal("9.99"))
+        .quantityOnHand(10)
+        .build());
+    String eTag = "\"" + beer.getId() + "-" + beer.getVersion() + "\"";
+
+    mockMvc.perform(patch(BeerController.BEER_PATH_ID, beer.getId())
+        .header(HttpHeaders.IF_MATCH, eTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(Map.of("quantityOnHand", 5))))
+        .andExpect(status().isNoContent())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + beer.getId() + "-" + (beer.getVersion() + 1) + "\""));
+
+    Beer patched = beerRepository.findById(beer.getId()).get();
+    assertThat(patched.getQuantityOnHand()).isEqualTo(5);
+    assertThat(patched.getBeerName()).isEqualTo("If-Match Ale");
+    assertThat(patched.getVersion()).isEqualTo(beer.getVersion() + 1);
+
+    // the old ETag is stale now
+    mockMvc.perform(patch(BeerController.BEER_PATH_ID, beer.getId())
+        .header(HttpHeaders.IF_MATCH, eTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(Map.of("quantityOnHand", 1))))
+        .andExpect(status().isPreconditionFailed());
+
+    mockMvc.perform(put(BeerController.BEER_PATH_ID, beer.getId())
+        .header(HttpHeaders.IF_MATCH, "\"not-an-etag\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(beerMapper.beerToBeerDTO(patched))))
+        .andExpect(status().isPreconditionFailed());
+
+    assertThat(beerRepository.findById(beer.getId()).get().getQuantityOnHand()).isEqualTo(5);
+    beerRepository.deleteById(beer.getId());
+  }
+
+  @Test
+  void testPatchWithoutChangesKeepsETag() throws Exception {
+    Beer beer = beerRepository.saveAndFlush(Beer.builder()
+        .beerName("No-op Ale")
+        .beerStyle(BeerStyle.ALE)
+        .upc("no-op-patch-1")
+        .price(new BigDecimal("9.99"))
+        .quantityOnHand(10)
+        .build());
+    String eTag = ConditionalRequests.eTag(beer.getId(), beer.getVersion());
+
+    // nothing to change, the version is not bumped and the client's ETag stays valid
+    mockMvc.perform(patch(BeerController.BEER_PATH_ID, beer.getId())
+        .header(HttpHeaders.IF_MATCH, eTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(Map.of())))
+        .andExpect(status().isNoContent())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+    assertThat(beerRepository.findById(beer.getId()).get().getVersion()).isEqualTo(beer.getVersion());
+    beerRepository.deleteById(beer.getId());
+  }
+
   @Test
   void testPatchBeerNotFound() {
     assertThrows(NotFoundException.class, () -> {
-      beerController.patchById(UUID.randomUUID(), BeerDTO.builder().build());
+      beerController.patchById(UUID.randomUUID(), BeerDTO.builder().build(), null);
     });
   }
 
@@ -162,7 +417,7 @@ public class BeerControllerIT {
     final String beerName = "New Name";
     beerDTO.setBeerName(beerName);
 
-    ResponseEntity<?> responseEntity = beerController.patchById(beerDTO.getId(), beerDTO);
+    ResponseEntity<?> responseEntity = beerController.patchById(beerDTO.getId(), beerDTO, null);
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
 
     Beer patchedBeer = beerRepository.findById(beerDTO.getId()).get();
@@ -191,7 +446,7 @@ public class BeerControllerIT {
   @Test
   void testUpdateBeerNotFound() {
     assertThrows(NotFoundException.class, () -> {
-      beerController.updateById(UUID.randomUUID(), BeerDTO.builder().build());
+      beerController.updateById(UUID.randomUUID(), BeerDTO.builder().build(), null);
     });
   }
 
@@ -206,7 +461,7 @@ public class BeerControllerIT {
     final String beerName = "UPDATED";
     beerDTO.setBeerName(beerName);
 
-    ResponseEntity<?> responseEntity = beerController.updateById(beer.getId(), beerDTO);
+    ResponseEntity<?> responseEntity = beerController.updateById(beer.getId(), beerDTO, null);
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
 
     Beer updatedBeer = beerRepository.findById(beer.getId()).get();
@@ -237,21 +492,319 @@ public class BeerControllerIT {
   @Test
   void testBeerIdNotFound() {
     assertThrows(NotFoundException.class, () -> {
-      beerController.getBeerById(UUID.randomUUID());
+      beerController.getBeerById(UUID.randomUUID(), webRequest());
     });
   }
 
   @Test
   void testGetBeerById() {
     Beer beer = beerRepository.findAll().get(0);
-    BeerDTO savedBeer = beerController.getBeerById(beer.getId());
+    BeerDTO savedBeer = beerController.getBeerById(beer.getId(), webRequest());
 
     assertThat(beer.getId()).isEqualTo(savedBeer.getId());
   }
 
+  @Test
+  void testGetBeerByIdConditional() throws Exception {
+    Beer beer = beerRepository.findAll().get(0);
+
+    String eTag = mockMvc.perform(get(BeerController.BEER_PATH_ID, beer.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + beer.getId() + "-" + beer.getVersion() + "\""))
+        .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get(BeerController.BEER_PATH_ID, beer.getId())
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    mockMvc.perform(get(BeerController.BEER_PATH_ID, beer.getId())
+        .header(HttpHeaders.IF_NONE_MATCH, "\"" + beer.getId() + "-" + (beer.getVersion() - 1) + "\""))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id", is(beer.getId().toString())));
+  }
+
+  @Test
+  void testGetBeerByIdConditionalNotFound() throws Exception {
+    mockMvc.perform(get(BeerController.BEER_PATH_ID, UUID.randomUUID())
+        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testListBeersWeakETag() throws Exception {
+    String eTag = mockMvc.perform(get(BeerController.BEER_PATH)
+        .queryParam("beerStyle", BeerStyle.IPA.name()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    assertThat(eTag).startsWith("W/\"");
+
+    mockMvc.perform(get(BeerController.BEER_PATH)
+        .queryParam("beerStyle", BeerStyle.IPA.name())
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+
+    mockMvc.perform(get(BeerController.BEER_PATH)
+        .queryParam("beerStyle", BeerStyle.ALE.name())
+        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void testAdjustInventoryConcurrently() throws Exception {
+    Beer beer = beerRepository.save(Beer.builder()
+        .beerName("Inventory Beer")
+        .beerStyle(BeerStyle.LAGER)
+        .upc("inventory-1")
+        .price(BigDecimal.TEN)
+        .quantityOnHand(100)
+        .build());
+
+    try {
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        List<Future<ResponseEntity<InventoryAdjustment>>> sales = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+          sales.add(executor.submit(() -> beerController.adjustInventory(beer.getId(), new InventoryDelta(-1))));
+        }
+        for (Future<ResponseEntity<InventoryAdjustment>> sale : sales) {
+          assertThat(sale.get().getStatusCode()).isEqualTo(HttpStatusCode.valueOf(200));
+        }
+      }
+
+      Beer adjusted = beerRepository.findById(beer.getId()).get();
+      assertThat(adjusted.getQuantityOnHand()).isEqualTo(60);
+      assertThat(adjusted.getVersion()).isEqualTo(beer.getVersion() + 40);
+
+      mockMvc.perform(post(BeerController.BEER_INVENTORY_PATH, beer.getId())
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"delta\": -61}"))
+          .andExpect(status().isConflict())
+          .andExpect(jsonPath("$[0].delta").exists());
+
+      mockMvc.perform(post(BeerController.BEER_INVENTORY_PATH, beer.getId())
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"delta\": 5}"))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG,
+              ConditionalRequests.eTag(beer.getId(), beer.getVersion() + 41)))
+          .andExpect(jsonPath("$.quantityOnHand", is(65)));
+    } finally {
+      beerRepository.deleteById(beer.getId());
+    }
+  }
+
+  @Test
+  void testBeerStatsMatchDatabase() throws Exception {
+    beerCatalogStats.reconcile();
+
+    BeerStats stats = beerController.getBeerStats();
+
+    assertThat(stats.getBeers()).isEqualTo(beerRepository.count());
+    assertThat(stats.getStyles()).hasSize(BeerStyle.values().length);
+    for (BeerStats.StyleStats styleStats : stats.getStyles()) {
+      assertThat(styleStats.getBeers()).isEqualTo(beerRepository.countByBeerStyle(styleStats.getBeerStyle()));
+    }
+
+    mockMvc.perform(get(BeerController.BEER_STATS_PATH))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.beers", is((int) stats.getBeers())))
+        .andExpect(jsonPath("$.styles.length()", is(BeerStyle.values().length)));
+  }
+
+  @Test
+  void testBeerStatsFollowWrites() throws Exception {
+    beerCatalogStats.reconcile();
+    BeerStats.StyleStats before = styleStats(BeerStyle.GOSE);
+
+    ResponseEntity<?> created = beerController.handlePost(BeerDTO.builder()
+        .beerName("Stats Gose")
+        .beerStyle(BeerStyle.GOSE)
+        .upc("stats-1")
+        .price(new BigDecimal("999.99"))
+        .quantityOnHand(7)
+        .build());
+    String[] location = created.getHeaders().getLocation().getPath().split("/");
+    UUID beerId = UUID.fromString(location[location.length - 1]);
+
+    try {
+      BeerStats.StyleStats added = styleStats(BeerStyle.GOSE);
+      assertThat(added.getBeers()).isEqualTo(before.getBeers() + 1);
+      assertThat(added.getQuantityOnHand()).isEqualTo(before.getQuantityOnHand() + 7);
+      assertThat(added.getMaxPrice()).isEqualByComparingTo("999.99");
+
+      beerController.adjustInventory(beerId, new InventoryDelta(3));
+      assertThat(styleStats(BeerStyle.GOSE).getQuantityOnHand()).isEqualTo(before.getQuantityOnHand() + 10);
+
+      // cached, so the patch knows the figures it replaces
+      beerController.getBeerById(beerId, webRequest());
+      beerController.patchById(beerId, BeerDTO.builder().beerStyle(BeerStyle.STOUT).build(), null);
+      assertThat(styleStats(BeerStyle.GOSE).getBeers()).isEqualTo(before.getBeers());
+      assertThat(styleStats(BeerStyle.GOSE).getQuantityOnHand()).isEqualTo(before.getQuantityOnHand());
+    } finally {
+      beerController.deleteById(beerId);
+    }
+
+    beerCatalogStats.reconcile();
+    assertThat(styleStats(BeerStyle.GOSE)).isEqualTo(before);
+  }
+
+  @Test
+  void testUntrackedWriteReconcilesStats() throws Exception {
+    beerCatalogStats.reconcile();
+    long goseBeers = styleStats(BeerStyle.GOSE).getBeers();
+
+    ResponseEntity<?> created = beerController.handlePost(BeerDTO.builder()
+        .beerName("Untracked Gose")
+        .beerStyle(BeerStyle.GOSE)
+        .upc("untracked-1")
+        .price(new BigDecimal("5.00"))
+        .quantityOnHand(1)
+        .build());
+    String[] location = created.getHeaders().getLocation().getPath().split("/");
+    UUID beerId = UUID.fromString(location[location.length - 1]);
+
+    try {
+      assertThat(styleStats(BeerStyle.GOSE).getBeers()).isEqualTo(goseBeers + 1);
+
+      // not cached, the patch doesn't know the style it moves the beer from
+      beerDtoCache.evict(beerId);
+      beerController.patchById(beerId, BeerDTO.builder().beerStyle(BeerStyle.STOUT).build(), null);
+
+      await().atMost(Duration.ofSeconds(10))
+          .untilAsserted(() -> assertThat(styleStats(BeerStyle.GOSE).getBeers()).isEqualTo(goseBeers));
+    } finally {
+      beerController.deleteById(beerId);
+    }
+  }
+
+  @Test
+  void testBatchWithRepeatedUpcsKeepsStatsExact() throws Exception {
+    // cheap and dear anchors keep every touched style's extremes valid, so no
+    // background reconciliation can cover up figures counted twice
+    List<BeerStyle> styles = List.of(BeerStyle.ALE, BeerStyle.STOUT, BeerStyle.PORTER, BeerStyle.LAGER, BeerStyle.GOSE);
+    List<Beer> anchors = new ArrayList<>();
+    for (BeerStyle beerStyle : styles) {
+      for (String price : List.of("0.01", "999.99")) {
+        anchors.add(Beer.builder()
+            .beerName("Anchor " + beerStyle + " " + price)
+            .beerStyle(beerStyle)
+            .upc("anchor-" + beerStyle + "-" + price)
+            .price(new BigDecimal(price))
+            .quantityOnHand(1)
+            .build());
+      }
+    }
+    anchors.add(Beer.builder()
+        .beerName("Repeated Ale")
+        .beerStyle(BeerStyle.ALE)
+        .upc("repeated-1")
+        .price(new BigDecimal("7.00"))
+        .quantityOnHand(10)
+        .build());
+    beerRepository.saveAllAndFlush(anchors);
+    beerCatalogStats.reconcile();
+
+    // each UPC twice in one chunk: an existing beer updated twice, a new one created then updated
+    List<Map<String, Object>> beers = List.of(
+        Map.of("beerName", "Repeated Stout", "beerStyle", "STOUT", "upc", "repeated-1", "price", "8.00",
+            "quantityOnHand", 20),
+        Map.of("beerName", "Repeated Porter", "beerStyle", "PORTER", "upc", "repeated-1", "price", "9.00",
+            "quantityOnHand", 30),
+        Map.of("beerName", "Repeated Lager", "beerStyle", "LAGER", "upc", "repeated-2", "price", "5.00",
+            "quantityOnHand", 40),
+        Map.of("beerName", "Repeated Gose", "beerStyle", "GOSE", "upc", "repeated-2", "price", "6.00",
+            "quantityOnHand", 50));
+
+    try {
+      mockMvc.perform(post(BeerController.BEER_BATCH_PATH)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(objectMapper.writeValueAsString(beers)))
+          .andExpect(status().isOk());
+
+      BeerStats followed = beerController.getBeerStats();
+      beerCatalogStats.reconcile();
+      BeerStats reconciled = beerController.getBeerStats();
+
+      assertThat(followed.getBeers()).isEqualTo(reconciled.getBeers());
+      assertThat(followed.getQuantityOnHand()).isEqualTo(reconciled.getQuantityOnHand());
+      for (BeerStyle beerStyle : styles) {
+        assertThat(followed.getStyles().get(beerStyle.ordinal()))
+            .usingRecursiveComparison()
+            .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+            .isEqualTo(reconciled.getStyles().get(beerStyle.ordinal()));
+      }
+    } finally {
+      beerRepository.deleteAll(beerRepository.findAllByUpcIn(List.of("repeated-1", "repeated-2")));
+      beerRepository.deleteAll(anchors);
+      beerCatalogStats.reconcile();
+    }
+  }
+
+  private BeerStats.StyleStats styleStats(BeerStyle beerStyle) {
+    return beerController.getBeerStats().getStyles().get(beerStyle.ordinal());
+  }
+
+  @Test
+  void testAdjustInventoryNotFound() throws Exception {
+    mockMvc.perform(post(BeerController.BEER_INVENTORY_PATH, UUID.randomUUID())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"delta\": 1}"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testServiceCallsPassThroughBulkhead() {
+    UUID beerId = beerRepository.findAll().get(0).getId();
+    beerDtoCache.evict(beerId);
+    long admitted = dbBulkhead.getAdmitted();
+
+    beerController.getBeerById(beerId, webRequest());
+
+    assertThat(dbBulkhead.getAdmitted()).isEqualTo(admitted + 1);
+    assertThat(dbBulkhead.getActive()).isZero();
+  }
+
+  @Test
+  void testCallsWithoutDatabaseAccessSkipBulkhead() {
+    UUID beerId = beerRepository.findAll().get(0).getId();
+    beerController.getBeerById(beerId, webRequest());
+    long admitted = dbBulkhead.getAdmitted();
+
+    beerController.getBeerById(beerId, webRequest());
+    beerController.getBeerStats();
+
+    assertThat(dbBulkhead.getAdmitted()).isEqualTo(admitted);
+  }
+
+  @Test
+  void testGetBeerByIdIsCached() {
+    Beer beer = beerRepository.findAll().get(0);
+    beerController.getBeerById(beer.getId(), webRequest());
+    long hits = beerDtoCache.stats().hitCount();
+
+    BeerDTO cachedBeer = beerController.getBeerById(beer.getId(), webRequest());
+
+    assertThat(beerDtoCache.stats().hitCount()).isEqualTo(hits + 1);
+    assertThat(cachedBeer.getId()).isEqualTo(beer.getId());
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testPatchBeerEvictsCachedBeer() {
+    Beer beer = beerRepository.findAll().get(0);
+    beerDtoCache.nativeCache().put(beer.getId(), beerMapper.beerToBeerDTO(beer));
+
+    beerController.patchById(beer.getId(), BeerDTO.builder().beerName("Patched").build(), null);
+
+    assertThat(beerDtoCache.nativeCache().getIfPresent(beer.getId())).isNull();
+  }
+
   @Test
   void testListBeers() {
-    Page<BeerDTO> dtos = beerController.listBeers(null, null, null, 1, 50);
+    Page<BeerDTO> dtos = beerController.listBeers(null, null, null, 1, 50, webRequest());
 
     assertThat(dtos.getContent().size()).isEqualTo(50);
   }
@@ -261,8 +814,112 @@ public class BeerControllerIT {
   @Rollback
   void testEmptyList() {
     beerRepository.deleteAll();
-    Page<BeerDTO> dtos = beerController.listBeers(null, null, null, 1, 50);
+    Page<BeerDTO> dtos = beerController.listBeers(null, null, null, 1, 50, webRequest());
 
     assertThat(dtos.getContent().size()).isEqualTo(0);
   }
+
+  @Test
+  void testGetBeerByIdStatements() {
+    UUID beerId = beerRepository.findAll().get(0).getId();
+    beerDtoCache.evict(beerId);
+
+    assertThat(SqlStatementRecorder.record(() -> beerController.getBeerById(beerId, webRequest())).statements())
+        .hasSize(1);
+    assertThat(SqlStatementRecorder.record(() -> beerController.getBeerById(beerId, webRequest())).statements())
+        .isEmpty();
+  }
+
+  @Test
+  void testListBeersStatements() {
+    assertThat(SqlStatementRecorder.record(
+        () -> beerController.listBeers(null, null, true, 2, 25, webRequest())).statements())
+        .hasSize(2);
+    assertThat(SqlStatementRecorder.record(
+        () -> beerController.listBeersWithCountMode(null, BeerStyle.IPA, true, 2, 25, CountMode.NONE)).statements())
+        .hasSize(1);
+    assertThat(SqlStatementRecorder.record(
+        () -> beerController.listBeersAfter("IPA", null, true, null, 25)).statements())
+        .hasSize(1);
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testPatchBeerStatements() {
+    UUID beerId = beerRepository.findAll().get(0).getId();
+    entityManager.clear();
+
+    assertThat(SqlStatementRecorder.record(() -> {
+      beerController.patchById(beerId, BeerDTO.builder().beerName("Patched").build(), null);
+      entityManager.flush();
+    }).statements())
+        .hasSize(1);
+    // without a cached copy the catalog statistics are reconciled rather than the old figures read
+    assertThat(SqlStatementRecorder.record(() -> {
+      beerController.patchById(beerId, BeerDTO.builder().price(new BigDecimal("9.99")).build(), null);
+      entityManager.flush();
+    }).statements())
+        .hasSize(1);
+  }
+
+  @Test
+  void testUpdateBeerStatements() {
+    Beer beer = beerRepository.saveAndFlush(Beer.builder()
+        .beerName("Statement Ale")
+        .beerStyle(BeerStyle.ALE)
+        .upc("statements-1")
+        .price(new BigDecimal("9.99"))
+        .quantityOnHand(10)
+        .build());
+    BeerDTO update = beerMapper.beerToBeerDTO(beer);
+
+    try {
+      update.setBeerName("Renamed Statement Ale");
+      assertThat(SqlStatementRecorder.record(() -> beerController.updateById(beer.getId(), update, null))
+          .statements())
+          .hasSize(1);
+
+      // the old figures come from a cached copy if there is one, never from a SELECT
+      beerController.getBeerById(beer.getId(), webRequest());
+      update.setPrice(new BigDecimal("10.99"));
+      assertThat(SqlStatementRecorder.record(() -> beerController.updateById(beer.getId(), update, null))
+          .statements())
+          .hasSize(1);
+    } finally {
+      beerController.deleteById(beer.getId());
+    }
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testDeleteBeerStatements() {
+    UUID beerId = beerRepository.findAll().get(0).getId();
+    entityManager.clear();
+
+    assertThat(SqlStatementRecorder.record(() -> {
+      beerController.deleteById(beerId);
+      entityManager.flush();
+    }).statements())
+        .hasSize(1);
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testAdjustInventoryStatements() {
+    UUID beerId = beerRepository.findAll().get(0).getId();
+    entityManager.clear();
+
+    assertThat(SqlStatementRecorder.record(() -> {
+      beerController.adjustInventory(beerId, new InventoryDelta(1));
+      entityManager.flush();
+    }).statements())
+        .hasSize(2);
+  }
+
+  private static ServletWebRequest webRequest() {
+    return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+  }
 }
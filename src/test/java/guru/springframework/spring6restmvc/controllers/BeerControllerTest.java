@@ -1,8 +1,10 @@
 package guru.springframework.spring6restmvc.controllers;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -15,6 +17,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +30,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -34,8 +39,11 @@ import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.VersionStamp;
 import guru.springframework.spring6restmvc.services.BeerService;
 import guru.springframework.spring6restmvc.services.BeerServiceImpl;
+import guru.springframework.spring6restmvc.services.DbBulkheadFullException;
 
 @WebMvcTest(BeerController.class)
 public class BeerControllerTest {
@@ -67,7 +75,7 @@ public class BeerControllerTest {
     BeerDTO beerDTO = BeerDTO.builder().build();
 
     given(beerService.saveNewBeer(any(BeerDTO.class)))
-        .willReturn(beerServiceImpl.listBeers(null, null, false, 1, 25).getContent().get(1));
+        .willReturn(beerServiceImpl.listBeers(null, null, false, 0, 25).getContent().get(1));
 
     MvcResult mvcResult = mockMvc.perform(post(BeerController.BEER_PATH)
         .accept(MediaType.APPLICATION_JSON)
@@ -81,28 +89,43 @@ public class BeerControllerTest {
 
   @Test
   void testPatchBeer() throws Exception {
-    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 1, 25).getContent().get(0);
+    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 0, 25).getContent().get(0);
 
     Map<String, Object> beerMap = new HashMap<>();
     beerMap.put("beerName", "New Name");
 
-    given(beerService.patchById(any(UUID.class), any())).willReturn(Optional.of(beer));
+    given(beerService.patchById(any(UUID.class), any(), isNull()))
+        .willReturn(Optional.of(new VersionStamp(beer.getId(), beer.getVersion() + 1, LocalDateTime.now())));
 
     mockMvc.perform(patch(BeerController.BEER_PATH_ID, beer.getId())
         .contentType(MediaType.APPLICATION_JSON)
         .accept(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(beerMap)))
-        .andExpect(status().isNoContent());
+        .andExpect(status().isNoContent())
+        .andExpect(header().string(HttpHeaders.ETAG, ConditionalRequests.eTag(beer.getId(), beer.getVersion() + 1)));
 
-    verify(beerService).patchById(uuidArgumentCaptor.capture(), beerArgumentCaptor.capture());
+    verify(beerService).patchById(uuidArgumentCaptor.capture(), beerArgumentCaptor.capture(), isNull());
 
     assertThat(beer.getId()).isEqualTo(uuidArgumentCaptor.getValue());
     assertThat(beerMap.get("beerName")).isEqualTo(beerArgumentCaptor.getValue().getBeerName());
   }
 
+  @Test
+  void testGetBeerStats() throws Exception {
+    given(beerService.getBeerStats()).willReturn(beerServiceImpl.getBeerStats());
+
+    mockMvc.perform(get(BeerController.BEER_STATS_PATH)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.beers", is(3)))
+        .andExpect(jsonPath("$.minPrice", is(11.99)))
+        .andExpect(jsonPath("$.styles.length()", is(BeerStyle.values().length)))
+        .andExpect(jsonPath("$.styles[?(@.beerStyle == 'PALE_ALE')].beers", contains(2)));
+  }
+
   @Test
   void testDeleteBeer() throws Exception {
-    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 1, 25).getContent().get(0);
+    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 0, 25).getContent().get(0);
 
     given(beerService.deleteById(any(UUID.class))).willReturn(true);
 
@@ -116,27 +139,30 @@ public class BeerControllerTest {
 
   @Test
   void testUpdateBeer() throws Exception {
-    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 1, 25).getContent().get(0);
+    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 0, 25).getContent().get(0);
 
-    given(beerService.updateById(any(UUID.class), any(BeerDTO.class))).willReturn(Optional.of(beer));
+    // the JPA service cannot know the version an unconditional update produced
+    given(beerService.updateById(any(UUID.class), any(BeerDTO.class), isNull()))
+        .willReturn(Optional.of(new VersionStamp(beer.getId(), null, LocalDateTime.now())));
 
     mockMvc.perform(put(BeerController.BEER_PATH_ID, beer.getId())
         .accept(MediaType.APPLICATION_JSON)
         .contentType(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(beer)))
-        .andExpect(status().isNoContent());
+        .andExpect(status().isNoContent())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
 
-    verify(beerService).updateById(any(UUID.class), any(BeerDTO.class));
+    verify(beerService).updateById(any(UUID.class), any(BeerDTO.class), isNull());
   }
 
   @Test
   void testCreateNewBeer() throws Exception {
-    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 1, 25).getContent().get(0);
+    BeerDTO beer = beerServiceImpl.listBeers(null, null, false, 0, 25).getContent().get(0);
     beer.setVersion(null);
     beer.setId(null);
 
     given(beerService.saveNewBeer(any(BeerDTO.class)))
-        .willReturn(beerServiceImpl.listBeers(null, null, false, 1, 25).getContent().get(1));
+        .willReturn(beerServiceImpl.listBeers(null, null, false, 0, 25).getContent().get(1));
 
     mockMvc.perform(post(BeerController.BEER_PATH)
         .accept(MediaType.APPLICATION_JSON)
@@ -149,7 +175,7 @@ public class BeerControllerTest {
   @Test
   void testListBeers() throws Exception {
     given(beerService.listBeers(any(), any(), any(), any(), any()))
-        .willReturn(beerServiceImpl.listBeers(null, null, false, 1, 25));
+        .willReturn(beerServiceImpl.listBeers(null, null, false, 0, 25));
 
     mockMvc.perform(get(BeerController.BEER_PATH)
         .accept(MediaType.APPLICATION_JSON))
@@ -167,9 +193,19 @@ public class BeerControllerTest {
         .andExpect(status().isNotFound());
   }
 
+  @Test
+  void testGetBeerByIdBulkheadFull() throws Exception {
+
+    given(beerService.getBeerById(any(UUID.class))).willThrow(new DbBulkheadFullException(Duration.ofSeconds(2)));
+
+    mockMvc.perform(get(BeerController.BEER_PATH_ID, UUID.randomUUID()))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+  }
+
   @Test
   void testGetBeerById() throws Exception {
-    BeerDTO testBeer = beerServiceImpl.listBeers(null, null, false, 1, 25).getContent().get(0);
+    BeerDTO testBeer = beerServiceImpl.listBeers(null, null, false, 0, 25).getContent().get(0);
 
     given(beerService.getBeerById(testBeer.getId())).willReturn(Optional.of(testBeer));
 
@@ -3,21 +3,32 @@ package guru.springframework.spring6restmvc.controllers;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import jakarta.persistence.EntityManager;
+
+import guru.springframework.spring6restmvc.config.SqlStatementRecorder;
 import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.model.CursorPage;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
 import guru.springframework.spring6restmvc.mappers.CustomerMapper;
+import guru.springframework.spring6restmvc.services.DtoCache;
 
 @SpringBootTest
 public class CustomerControllerIT {
@@ -31,6 +42,12 @@ public class CustomerControllerIT {
   @Autowired
   CustomerMapper customerMapper;
 
+  @Autowired
+  DtoCache<CustomerDTO> customerDtoCache;
+
+  @Autowired
+  EntityManager entityManager;
+
   @Test
   void testPatchCustomerNotFound() {
     assertThrows(NotFoundException.class, () -> {
@@ -53,6 +70,20 @@ public class CustomerControllerIT {
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
   }
 
+  @Test
+  void testGetCustomerByIdNotModified() {
+    Customer customer = customerRepository.findAll().get(0);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + customer.getId() + "-" + customer.getVersion() + "\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    CustomerDTO customerDTO = customerController.getCustomerById(customer.getId(),
+        new ServletWebRequest(request, response));
+
+    assertThat(customerDTO).isNull();
+    assertThat(response.getStatus()).isEqualTo(304);
+  }
+
   @Test
   void testDeleteByIdNotFound() {
     assertThrows(NotFoundException.class, () -> {
@@ -116,7 +147,7 @@ public class CustomerControllerIT {
   @Test
   void testCustomerIdNotFound() {
     assertThrows(NotFoundException.class, () -> {
-      customerController.getCustomerById(UUID.randomUUID());
+      customerController.getCustomerById(UUID.randomUUID(), webRequest());
     });
   }
 
@@ -124,7 +155,7 @@ public class CustomerControllerIT {
   void testGetCustomerById() {
     Customer customer = customerRepository.findAll().get(0);
 
-    CustomerDTO customerDTO = customerController.getCustomerById(customer.getId());
+    CustomerDTO customerDTO = customerController.getCustomerById(customer.getId(), webRequest());
     assertThat(customerDTO).isNotNull();
     assertThat(customerDTO.getId()).isEqualTo(customer.getId());
   }
@@ -135,15 +166,106 @@ public class CustomerControllerIT {
   void testEmptyList() {
     customerRepository.deleteAll();
 
-    List<CustomerDTO> customerDTOs = customerController.listCustomers();
+    Page<CustomerDTO> customerDTOs = customerController.listCustomers(null, null, null, null, webRequest());
 
-    assertThat(customerDTOs.size()).isZero();
+    assertThat(customerDTOs.getContent()).isEmpty();
   }
 
   @Test
   void testListBeers() {
-    List<CustomerDTO> customerDTOs = customerController.listCustomers();
+    Page<CustomerDTO> customerDTOs = customerController.listCustomers(null, null, null, null, webRequest());
+
+    assertThat(customerDTOs.getContent().size()).isNotZero();
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testListCustomersByNameAndEmail() {
+    customerRepository.save(Customer.builder().customerName("Paged Customer").email("paged@example.com").build());
+
+    Page<CustomerDTO> byName = customerController.listCustomers("PAGED", null, null, null, webRequest());
+    Page<CustomerDTO> byEmail = customerController.listCustomers(null, "paged@", null, null, webRequest());
+    Page<CustomerDTO> byBoth = customerController.listCustomers("arin", "paged@", null, null, webRequest());
+
+    assertThat(byName.getContent()).extracting(CustomerDTO::getCustomerName).containsExactly("Paged Customer");
+    assertThat(byEmail.getContent()).extracting(CustomerDTO::getEmail).containsExactly("paged@example.com");
+    assertThat(byBoth.getContent()).isEmpty();
+  }
+
+  @Test
+  void testListCustomersWithCursor() {
+    List<UUID> ids = new ArrayList<>();
+    String after = "";
+    do {
+      CursorPage<CustomerDTO> page = customerController.listCustomersAfter(null, null, after, 1);
+      assertThat(page.getSize()).isEqualTo(1);
+      page.getContent().forEach(customer -> ids.add(customer.getId()));
+      after = page.getNextCursor();
+    } while (after != null);
+
+    assertThat(ids).containsExactlyInAnyOrderElementsOf(
+        customerRepository.findAll().stream().map(Customer::getId).toList());
+  }
+
+  @Test
+  void testListCustomersWithBadCursor() {
+    assertThrows(BadRequestException.class,
+        () -> customerController.listCustomersAfter(null, null, "not-a-cursor", null));
+  }
+
+  @Test
+  void testGetCustomerByIdStatements() {
+    UUID customerId = customerRepository.findAll().get(0).getId();
+    customerDtoCache.evict(customerId);
+
+    assertThat(SqlStatementRecorder.record(
+        () -> customerController.getCustomerById(customerId, webRequest())).statements())
+        .hasSize(1);
+    assertThat(SqlStatementRecorder.record(
+        () -> customerController.getCustomerById(customerId, webRequest())).statements())
+        .isEmpty();
+  }
+
+  @Test
+  void testListCustomersStatements() {
+    assertThat(SqlStatementRecorder.record(
+        () -> customerController.listCustomers(null, null, 1, 1, webRequest())).statements())
+        .hasSize(2);
+    assertThat(SqlStatementRecorder.record(
+        () -> customerController.listCustomersAfter(null, null, null, 2)).statements())
+        .hasSize(1);
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testPatchCustomerStatements() {
+    UUID customerId = customerRepository.findAll().get(0).getId();
+    entityManager.clear();
+
+    assertThat(SqlStatementRecorder.record(() -> {
+      customerController.patchById(customerId, CustomerDTO.builder().customerName("Patched").build());
+      entityManager.flush();
+    }).statements())
+        .hasSize(2);
+  }
+
+  @Rollback
+  @Transactional
+  @Test
+  void testDeleteCustomerStatements() {
+    UUID customerId = customerRepository.findAll().get(0).getId();
+    entityManager.clear();
+
+    assertThat(SqlStatementRecorder.record(() -> {
+      customerController.deleteById(customerId);
+      entityManager.flush();
+    }).statements())
+        .hasSize(1);
+  }
 
-    assertThat(customerDTOs.size()).isNotZero();
+  private static ServletWebRequest webRequest() {
+    return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
   }
 }
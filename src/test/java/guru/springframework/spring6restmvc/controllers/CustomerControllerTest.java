@@ -66,7 +66,7 @@ public class CustomerControllerTest {
     CustomerDTO customerDTO = CustomerDTO.builder().build();
 
     given(customerService.saveNewCustomer(any(CustomerDTO.class)))
-        .willReturn(customerServiceImpl.listCustomers().get(1));
+        .willReturn(customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(1));
 
     mockMvc.perform(post(CustomerController.CUSTOMER_PATH)
         .accept(MediaType.APPLICATION_JSON)
@@ -77,7 +77,7 @@ public class CustomerControllerTest {
 
   @Test
   void testPatchCustomer() throws Exception {
-    CustomerDTO customer = customerServiceImpl.listCustomers().get(0);
+    CustomerDTO customer = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
 
     Map<String, Object> customerMap = new HashMap<>();
     customerMap.put("customerName", "New Name");
@@ -98,7 +98,7 @@ public class CustomerControllerTest {
 
   @Test
   void testDeleteCustomer() throws Exception {
-    CustomerDTO customer = customerServiceImpl.listCustomers().get(0);
+    CustomerDTO customer = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
 
     given(customerService.deleteById(any(UUID.class))).willReturn(true);
 
@@ -112,7 +112,7 @@ public class CustomerControllerTest {
 
   @Test
   void testUpdateCustomer() throws Exception {
-    CustomerDTO customer = customerServiceImpl.listCustomers().get(0);
+    CustomerDTO customer = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
 
     given(customerService.updateById(any(UUID.class), any())).willReturn(Optional.of(customer));
 
@@ -127,12 +127,12 @@ public class CustomerControllerTest {
 
   @Test
   void testCreateNewCustomer() throws Exception {
-    CustomerDTO customer = customerServiceImpl.listCustomers().get(0);
+    CustomerDTO customer = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
     customer.setVersion(null);
     customer.setId(null);
 
     given(customerService.saveNewCustomer(any(CustomerDTO.class)))
-        .willReturn(customerServiceImpl.listCustomers().get(1));
+        .willReturn(customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(1));
 
     mockMvc.perform(post(CustomerController.CUSTOMER_PATH)
         .accept(MediaType.APPLICATION_JSON)
@@ -144,12 +144,13 @@ public class CustomerControllerTest {
 
   @Test
   void testListCustomers() throws Exception {
-    given(customerService.listCustomers()).willReturn(customerServiceImpl.listCustomers());
+    given(customerService.listCustomers(any(), any(), any(), any()))
+        .willReturn(customerServiceImpl.listCustomers(null, null, 1, 25));
 
     mockMvc.perform(get(CustomerController.CUSTOMER_PATH).accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isOk())
         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-        .andExpect(jsonPath("$.length()", is(2)));
+        .andExpect(jsonPath("$.content.length()", is(2)));
   }
 
   @Test
@@ -162,7 +163,7 @@ public class CustomerControllerTest {
 
   @Test
   void testGetCustomerById() throws Exception {
-    CustomerDTO testCustomer = customerServiceImpl.listCustomers().get(0);
+    CustomerDTO testCustomer = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
 
     given(customerService.getCustomerById(testCustomer.getId())).willReturn(Optional.of(testCustomer));
 
@@ -0,0 +1,37 @@
+package guru.springframework.spring6restmvc.entities;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeOrderedUuidGeneratorTest {
+
+  @Test
+  void testVersionAndVariant() {
+    UUID uuid = TimeOrderedUuidGenerator.next();
+
+    assertThat(uuid.version()).isEqualTo(7);
+    assertThat(uuid.variant()).isEqualTo(2);
+  }
+
+  @Test
+  void testIdsAreMonotonic() {
+    UUID previous = TimeOrderedUuidGenerator.next();
+
+    for (int i = 0; i < 100_000; i++) {
+      UUID next = TimeOrderedUuidGenerator.next();
+      assertThat(next.toString()).isGreaterThan(previous.toString());
+      previous = next;
+    }
+  }
+
+  @Test
+  void testTimestampIsCurrentTime() {
+    long before = System.currentTimeMillis();
+    UUID uuid = TimeOrderedUuidGenerator.next();
+
+    assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis() + 1);
+  }
+}
@@ -11,15 +11,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import guru.springframework.spring6restmvc.bootstrap.BootstrapData;
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.services.BeerCatalogStats;
+import guru.springframework.spring6restmvc.services.BeerCsvIngestServiceImpl;
 import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
 import jakarta.validation.ConstraintViolationException;
 
 @DataJpaTest
-@Import({ BootstrapData.class, BeerCsvServiceImpl.class })
+@Import({ BootstrapData.class, BeerCsvServiceImpl.class, BeerCsvIngestServiceImpl.class, BeerCatalogStats.class })
 public class BeerRepositoryTest {
 
   @Autowired
@@ -32,6 +36,17 @@ public class BeerRepositoryTest {
 
   }
 
+  @Test
+  void testGetBeerListingsByStyleWithoutInventory() {
+    Page<BeerListing.WithoutInventory> list = beerRepository.findAllByBeerStyle(BeerStyle.IPA,
+        PageRequest.of(0, 25, Sort.by("beerName")), BeerListing.WithoutInventory.class);
+
+    assertThat(list.getContent()).hasSize(25);
+    assertThat(list.getTotalElements()).isEqualTo(beerRepository.countByBeerStyle(BeerStyle.IPA));
+    assertThat(list.getContent().get(0).toBeerDTO().getQuantityOnHand()).isNull();
+    assertThat(list.getContent().get(0).toBeerDTO().getBeerStyle()).isEqualTo(BeerStyle.IPA);
+  }
+
   @Test
   void testSaveBeerNameTooLong() {
 
@@ -57,5 +72,6 @@ public class BeerRepositoryTest {
 
     assertThat(savedBeer).isNotNull();
     assertThat(savedBeer.getId()).isNotNull();
+    assertThat(savedBeer.getId().version()).isEqualTo(7);
   }
 }
@@ -1,19 +1,31 @@
 package guru.springframework.spring6restmvc.repositories;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CountMode;
+import guru.springframework.spring6restmvc.services.BeerServiceJPA;
 
 @Testcontainers
 @SpringBootTest
@@ -27,10 +39,58 @@ public class MySqlIT {
   @Autowired
   BeerRepository beerRepository;
 
+  @Autowired
+  BeerServiceJPA beerService;
+
   @Test
   void testListBeers() {
     List<Beer> beers = beerRepository.findAll();
 
     assertThat(beers.size()).isGreaterThan(0);
   }
+
+  @Test
+  void testSearchBeersByName() {
+    Page<BeerListing.WithInventory> beers = beerRepository.searchByBeerName("+\"IPA\"", null, PageRequest.of(0, 25),
+        BeerListing.WithInventory.class);
+
+    assertThat(beers.getTotalElements()).isGreaterThan(0);
+    assertThat(beers.getContent().get(0).beerName()).containsIgnoringCase("IPA");
+    assertThat(beers.getContent().get(0).quantityOnHand()).isNotNull();
+  }
+
+  @Test
+  void testListingVariantsMatchTheSameBeers() {
+    // full-text terms match in any order, which LIKE would not, so every variant must take the same path
+    Set<UUID> exact = beerService.listBeers("ale pale", null, false, 1, 1000).stream()
+        .map(BeerDTO::getId)
+        .collect(Collectors.toSet());
+    Set<UUID> slice = beerService.listBeers("ale pale", null, false, 1, 1000, CountMode.NONE).stream()
+        .map(BeerDTO::getId)
+        .collect(Collectors.toSet());
+    Set<UUID> keyset = beerService.listBeersAfter("ale pale", null, false, null, 1000).getContent().stream()
+        .map(BeerDTO::getId)
+        .collect(Collectors.toSet());
+
+    assertThat(exact).isNotEmpty();
+    assertThat(slice).isEqualTo(exact);
+    assertThat(keyset).isEqualTo(exact);
+    assertThat(beerRepository.countSearchByBeerName("+\"ale\" +\"pale\"", null))
+        .isEqualTo(exact.size());
+  }
+
+  @Test
+  void testSearchBeersAfterPagesByNameAndId() {
+    Window<BeerListing.WithoutInventory> first = beerRepository.searchByBeerNameOrderByBeerNameAscIdAsc(
+        "+\"IPA\"", BeerStyle.IPA, ScrollPosition.keyset(), Limit.of(2), BeerListing.WithoutInventory.class);
+    Window<BeerListing.WithoutInventory> second = beerRepository.searchByBeerNameOrderByBeerNameAscIdAsc(
+        "+\"IPA\"", BeerStyle.IPA, first.positionAt(first.size() - 1), Limit.of(2),
+        BeerListing.WithoutInventory.class);
+
+    assertThat(first.hasNext()).isTrue();
+    assertThat(second.getContent()).isNotEmpty();
+    assertThat(second.getContent().get(0).beerName().compareToIgnoreCase(first.getContent().get(1).beerName()))
+        .isGreaterThanOrEqualTo(0);
+    assertThat(second.getContent()).doesNotContainAnyElementsOf(first.getContent());
+  }
 }
@@ -0,0 +1,391 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Query plan regression tests. Every select a repository method issues is
+ * recorded with its bind parameters and replayed as {@code EXPLAIN} against
+ * MySQL; a plan containing a full table scan or a filesort fails the test
+ * unless the query is explicitly allowed one. Name-ordered beer listings
+ * without inventory must also be read from the covering name index alone, and
+ * those with inventory must still walk a name index.
+ * <p>
+ * The unfiltered export stream is left out: it reads the whole table by design.
+ */
+@Testcontainers
+@SpringBootTest
+@ActiveProfiles("localmysql")
+public class MySqlQueryPlanIT {
+
+  static final int SEEDED_CUSTOMERS = 1000;
+
+  static final List<String> BEER_NAME_INDEXES = List.of("ix_beer_name_id", "ix_beer_name_listing");
+
+  @Container
+  @ServiceConnection
+  static MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:9");
+
+  static final List<RecordedQuery> recordedQueries = new CopyOnWriteArrayList<>();
+
+  @Autowired
+  BeerRepository beerRepository;
+
+  @Autowired
+  CustomerRepository customerRepository;
+
+  @Autowired
+  DataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    if (customerRepository.count() < SEEDED_CUSTOMERS) {
+      customerRepository.saveAll(IntStream.range(0, SEEDED_CUSTOMERS)
+          .mapToObj(i -> Customer.builder()
+              .customerName("Customer %04d".formatted(i))
+              .email("customer%04d@example.com".formatted(i))
+              .build())
+          .toList());
+    }
+
+    // fresh statistics, so plans don't depend on how far the background stats update got
+    try (Connection connection = targetDataSource().getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("analyze table beer, customer");
+    }
+    recordedQueries.clear();
+  }
+
+  @Test
+  void testListBeersPlans() {
+    PageRequest pageRequest = PageRequest.of(1, 25, Sort.by(Sort.Order.asc("beerName")));
+
+    beerRepository.findPageBy(pageRequest, BeerListing.WithoutInventory.class);
+    beerRepository.findSliceBy(pageRequest, BeerListing.WithoutInventory.class);
+
+    assertCoveredBy("ix_beer_name_listing");
+    assertIndexedPlans(false);
+
+    beerRepository.findPageBy(pageRequest, BeerListing.WithInventory.class);
+
+    assertReadThrough(BEER_NAME_INDEXES);
+    assertIndexedPlans(false);
+  }
+
+  @Test
+  void testListBeersByNamePlans() {
+    PageRequest pageRequest = PageRequest.of(1, 25, Sort.by(Sort.Order.asc("beerName")));
+
+    beerRepository.findAllByBeerNameIsLikeIgnoreCase("%IPA%", pageRequest, BeerListing.WithoutInventory.class);
+    beerRepository.findSliceByBeerNameIsLikeIgnoreCase("%IPA%", pageRequest, BeerListing.WithoutInventory.class);
+    beerRepository.countByBeerNameIsLikeIgnoreCase("%IPA%");
+
+    assertCoveredBy("ix_beer_name_listing");
+    assertIndexedPlans(false);
+  }
+
+  @Test
+  void testListBeersByStylePlans() {
+    PageRequest pageRequest = PageRequest.of(1, 25, Sort.by(Sort.Order.asc("beerName")));
+
+    beerRepository.findAllByBeerStyle(BeerStyle.IPA, pageRequest, BeerListing.WithInventory.class);
+    beerRepository.findSliceByBeerStyle(BeerStyle.IPA, pageRequest, BeerListing.WithInventory.class);
+    beerRepository.countByBeerStyle(BeerStyle.IPA);
+
+    assertIndexedPlans(false);
+  }
+
+  @Test
+  void testListBeersByNameAndStylePlans() {
+    PageRequest pageRequest = PageRequest.of(0, 25, Sort.by(Sort.Order.asc("beerName")));
+
+    beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%IPA%", BeerStyle.IPA, pageRequest,
+        BeerListing.WithInventory.class);
+    beerRepository.findSliceByBeerNameIsLikeIgnoreCaseAndBeerStyle("%IPA%", BeerStyle.IPA, pageRequest,
+        BeerListing.WithInventory.class);
+    beerRepository.countByBeerNameIsLikeIgnoreCaseAndBeerStyle("%IPA%", BeerStyle.IPA);
+
+    assertIndexedPlans(false);
+  }
+
+  @Test
+  void testListBeersAfterPlans() {
+    Limit limit = Limit.of(25);
+
+    Window<BeerListing.WithoutInventory> first = beerRepository.findAllByOrderByBeerNameAscIdAsc(
+        ScrollPosition.keyset(), limit, BeerListing.WithoutInventory.class);
+    beerRepository.findAllByOrderByBeerNameAscIdAsc(after(first), limit, BeerListing.WithoutInventory.class);
+    assertCoveredBy("ix_beer_name_listing");
+    assertIndexedPlans(false);
+
+    // the covering index leaves quantity_on_hand out, these seek a name index and look up each row
+    Window<BeerListing.WithInventory> firstWithInventory = beerRepository.findAllByOrderByBeerNameAscIdAsc(
+        ScrollPosition.keyset(), limit, BeerListing.WithInventory.class);
+    beerRepository.findAllByOrderByBeerNameAscIdAsc(after(firstWithInventory), limit,
+        BeerListing.WithInventory.class);
+    assertReadThrough(BEER_NAME_INDEXES);
+
+    Window<BeerListing.WithInventory> firstOfStyle = beerRepository.findAllByBeerStyleOrderByBeerNameAscIdAsc(
+        BeerStyle.IPA, ScrollPosition.keyset(), limit, BeerListing.WithInventory.class);
+    beerRepository.findAllByBeerStyleOrderByBeerNameAscIdAsc(BeerStyle.IPA, after(firstOfStyle), limit,
+        BeerListing.WithInventory.class);
+
+    beerRepository.findAllByBeerNameIsLikeIgnoreCaseOrderByBeerNameAscIdAsc("%IPA%", after(first), limit,
+        BeerListing.WithInventory.class);
+    beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyleOrderByBeerNameAscIdAsc("%IPA%", BeerStyle.IPA,
+        after(firstOfStyle), limit, BeerListing.WithInventory.class);
+
+    assertIndexedPlans(false);
+  }
+
+  @Test
+  void testBeerLookupPlans() {
+    UUID beerId = beerRepository.findAllByOrderByBeerNameAscIdAsc(ScrollPosition.keyset(), Limit.of(1),
+        BeerListing.WithInventory.class).getContent().get(0).id();
+    recordedQueries.clear();
+
+    beerRepository.findVersionById(beerId);
+    beerRepository.findInventoryLevelById(beerId);
+    beerRepository.findAllByUpcIn(List.of("1", "2", "3"));
+
+    assertIndexedPlans(false);
+  }
+
+  @Test
+  void testSearchBeersPlans() {
+    PageRequest pageRequest = PageRequest.of(1, 25);
+
+    beerRepository.searchByBeerName("+\"IPA\"", null, pageRequest, BeerListing.WithInventory.class);
+    beerRepository.searchByBeerName("+\"IPA\"", BeerStyle.IPA, pageRequest, BeerListing.WithoutInventory.class);
+    beerRepository.searchSliceByBeerName("+\"IPA\"", null, pageRequest, BeerListing.WithInventory.class);
+    beerRepository.searchByBeerNameOrderByBeerNameAscIdAsc("+\"IPA\"", BeerStyle.IPA, ScrollPosition.keyset(),
+        Limit.of(25), BeerListing.WithInventory.class);
+
+    // results are ordered by FULLTEXT relevance or sorted by name after the match, which no index can deliver
+    assertIndexedPlans(true);
+  }
+
+  @Test
+  void testListCustomersPlans() {
+    PageRequest pageRequest = PageRequest.of(1, 25,
+        Sort.by(Sort.Order.asc("customerName"), Sort.Order.asc("id")));
+
+    customerRepository.findAll(pageRequest);
+    customerRepository.findAllByCustomerNameIsLikeIgnoreCase("%customer 01%", pageRequest);
+
+    Window<Customer> first = customerRepository.findAllByOrderByCustomerNameAscIdAsc(ScrollPosition.keyset(),
+        Limit.of(25));
+    Customer last = first.getContent().get(first.size() - 1);
+    ScrollPosition after = ScrollPosition.forward(
+        Map.of("customerName", last.getCustomerName(), "id", last.getId()));
+    customerRepository.findAllByOrderByCustomerNameAscIdAsc(after, Limit.of(25));
+    customerRepository.findAllByCustomerNameIsLikeIgnoreCaseOrderByCustomerNameAscIdAsc("%customer 01%", after,
+        Limit.of(25));
+
+    customerRepository.findVersionById(last.getId());
+
+    assertIndexedPlans(false);
+  }
+
+  @Test
+  void testListCustomersByEmailPlans() {
+    PageRequest pageRequest = PageRequest.of(0, 25,
+        Sort.by(Sort.Order.asc("customerName"), Sort.Order.asc("id")));
+
+    customerRepository.findAllByEmailStartingWith("customer01", pageRequest);
+    customerRepository.findAllByCustomerNameIsLikeIgnoreCaseAndEmailStartingWith("%customer%", "customer01",
+        pageRequest);
+    customerRepository.findAllByEmailStartingWithOrderByCustomerNameAscIdAsc("customer01", ScrollPosition.keyset(),
+        Limit.of(25));
+
+    // the prefix is a range on ix_customer_email; the few matching rows are then sorted by name
+    assertIndexedPlans(true);
+  }
+
+  private static ScrollPosition after(Window<? extends BeerListing> window) {
+    BeerListing last = window.getContent().get(window.size() - 1);
+    return ScrollPosition.forward(Map.of("beerName", last.beerName(), "id", last.id()));
+  }
+
+  /**
+   * Fails unless every listing select recorded since the last call, counts
+   * aside, is read from {@code index} alone. Keeps the recorded queries for
+   * {@link #assertIndexedPlans(boolean)}.
+   */
+  private void assertCoveredBy(String index) {
+    List<String> uncovered = new ArrayList<>();
+    for (RecordedQuery query : recordedQueries) {
+      if (query.sql().toLowerCase(Locale.ROOT).contains("count(")) {
+        continue;
+      }
+      for (PlanRow row : explain(query)) {
+        // "Using index condition" is a pushed down filter, not a covering read
+        boolean indexOnly = row.extra() != null && List.of(row.extra().split("; ")).contains("Using index");
+        if (!index.equals(row.key()) || !indexOnly) {
+          uncovered.add(row.key() + " (" + row.extra() + "): " + query.sql());
+        }
+      }
+    }
+
+    assertThat(uncovered).isEmpty();
+  }
+
+  /**
+   * Fails unless every select recorded since the last call, counts aside, is
+   * read through one of {@code indexes}, with or without row lookups. Keeps
+   * the recorded queries for {@link #assertIndexedPlans(boolean)}.
+   */
+  private void assertReadThrough(List<String> indexes) {
+    List<String> unindexed = new ArrayList<>();
+    for (RecordedQuery query : recordedQueries) {
+      if (query.sql().toLowerCase(Locale.ROOT).contains("count(")) {
+        continue;
+      }
+      for (PlanRow row : explain(query)) {
+        if (!indexes.contains(row.key())) {
+          unindexed.add(row.key() + " (" + row.extra() + "): " + query.sql());
+        }
+      }
+    }
+
+    assertThat(unindexed).isEmpty();
+  }
+
+  /**
+   * Explains every select recorded since the last call and fails on full table
+   * scans, and on filesorts unless {@code allowFilesort}.
+   */
+  private void assertIndexedPlans(boolean allowFilesort) {
+    List<RecordedQuery> queries = List.copyOf(recordedQueries);
+    recordedQueries.clear();
+    assertThat(queries).isNotEmpty();
+
+    List<String> regressions = new ArrayList<>();
+    for (RecordedQuery query : queries) {
+      for (PlanRow row : explain(query)) {
+        if ("ALL".equals(row.type())) {
+          regressions.add("full scan of " + row.table() + ": " + query.sql());
+        }
+        if (!allowFilesort && row.extra() != null && row.extra().contains("Using filesort")) {
+          regressions.add("filesort on " + row.table() + ": " + query.sql());
+        }
+      }
+    }
+
+    assertThat(regressions).isEmpty();
+  }
+
+  private List<PlanRow> explain(RecordedQuery query) {
+    // straight to the pool, so the EXPLAIN itself isn't recorded
+    try (Connection connection = targetDataSource().getConnection();
+        PreparedStatement statement = connection.prepareStatement("explain " + query.sql())) {
+      for (ParameterSetOperation operation : query.parameters()) {
+        operation.getMethod().invoke(statement, operation.getArgs());
+      }
+
+      List<PlanRow> rows = new ArrayList<>();
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          rows.add(new PlanRow(resultSet.getString("table"), resultSet.getString("type"),
+              resultSet.getString("key"), resultSet.getString("Extra")));
+        }
+      }
+      return rows;
+    } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Could not explain " + query.sql(), e);
+    }
+  }
+
+  private DataSource targetDataSource() {
+    return dataSource instanceof ProxyDataSource proxyDataSource ? proxyDataSource.getDataSource() : dataSource;
+  }
+
+  record RecordedQuery(String sql, List<ParameterSetOperation> parameters) {
+  }
+
+  record PlanRow(String table, String type, String key, String extra) {
+  }
+
+  @TestConfiguration
+  static class RecordingDataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor recordingDataSourcePostProcessor() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                .name(beanName)
+                .listener(new RecordingListener())
+                .build();
+          }
+          return bean;
+        }
+      };
+    }
+  }
+
+  static class RecordingListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+      for (QueryInfo queryInfo : queryInfoList) {
+        String sql = queryInfo.getQuery().strip();
+        if (!sql.toLowerCase(Locale.ROOT).startsWith("select")) {
+          continue;
+        }
+        List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+            ? List.of()
+            : List.copyOf(queryInfo.getParametersList().get(0));
+        recordedQueries.add(new RecordedQuery(sql, parameters));
+      }
+    }
+  }
+}
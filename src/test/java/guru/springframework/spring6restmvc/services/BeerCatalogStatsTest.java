@@ -0,0 +1,67 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import guru.springframework.spring6restmvc.model.BeerFigures;
+import guru.springframework.spring6restmvc.model.BeerStats;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.BeerStyleTotals;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+
+class BeerCatalogStatsTest {
+
+  static final List<BeerStyleTotals> TOTALS = List.of(new BeerStyleTotals(BeerStyle.ALE, 10L, 100L,
+      new BigDecimal("50.00"), new BigDecimal("1.00"), new BigDecimal("9.00")));
+
+  BeerRepository beerRepository = mock(BeerRepository.class);
+  BeerCatalogStats beerCatalogStats = new BeerCatalogStats(beerRepository, Duration.ZERO, Duration.ZERO);
+
+  @AfterEach
+  void tearDown() {
+    beerCatalogStats.destroy();
+  }
+
+  @Test
+  void testReconcileKeepsWritesCommittedWhileItRuns() {
+    given(beerRepository.sumByBeerStyle()).willAnswer(invocation -> {
+      // writes keep committing while the GROUP BY runs; none of them is in its result
+      for (int i = 0; i < 5; i++) {
+        beerCatalogStats.changed(null, new BeerFigures(UUID.randomUUID(), BeerStyle.ALE, new BigDecimal("5.00"), 2));
+      }
+      beerCatalogStats.quantityAdjusted(BeerStyle.ALE, -3);
+      return TOTALS;
+    });
+
+    beerCatalogStats.reconcile();
+    beerCatalogStats.reconcile();
+
+    BeerStats.StyleStats ale = beerCatalogStats.snapshot().getStyles().get(BeerStyle.ALE.ordinal());
+    assertThat(ale.getBeers()).isEqualTo(15);
+    assertThat(ale.getQuantityOnHand()).isEqualTo(107);
+    assertThat(ale.getAvgPrice()).isEqualByComparingTo("5.00");
+  }
+
+  @Test
+  void testFirstLoadIsRetried() {
+    given(beerRepository.sumByBeerStyle())
+        .willThrow(new DataAccessResourceFailureException("database not up yet"))
+        .willReturn(TOTALS);
+
+    beerCatalogStats.onApplicationReady();
+
+    await().atMost(Duration.ofSeconds(10)).until(beerCatalogStats::isLoaded);
+    assertThat(beerCatalogStats.snapshot().getBeers()).isEqualTo(10);
+  }
+}
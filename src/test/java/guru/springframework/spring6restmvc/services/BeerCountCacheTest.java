@@ -0,0 +1,47 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class BeerCountCacheTest {
+
+  @Test
+  void testCountIsReusedUntilCleared() {
+    BeerCountCache cache = new BeerCountCache(Duration.ofMinutes(1), 10);
+    AtomicInteger counted = new AtomicInteger();
+
+    assertThat(cache.get("IPA", () -> counted.incrementAndGet() * 10L)).isEqualTo(10);
+    assertThat(cache.get("IPA", () -> counted.incrementAndGet() * 10L)).isEqualTo(10);
+    cache.clear();
+    assertThat(cache.get("IPA", () -> counted.incrementAndGet() * 10L)).isEqualTo(20);
+  }
+
+  @Test
+  void testDistinctKeysAreBounded() {
+    BeerCountCache cache = new BeerCountCache(Duration.ofMinutes(1), 10);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.get("beer " + i, () -> 1);
+    }
+    cache.nativeCache().cleanUp();
+
+    assertThat(cache.nativeCache().estimatedSize()).isLessThanOrEqualTo(10);
+  }
+
+  @Test
+  void testExpiredCountIsRecounted() {
+    BeerCountCache cache = new BeerCountCache(Duration.ZERO, 10);
+    AtomicInteger counted = new AtomicInteger();
+
+    cache.get("IPA", counted::incrementAndGet);
+    cache.get("IPA", counted::incrementAndGet);
+    cache.nativeCache().cleanUp();
+
+    assertThat(counted).hasValue(2);
+    assertThat(cache.nativeCache().estimatedSize()).isZero();
+  }
+}
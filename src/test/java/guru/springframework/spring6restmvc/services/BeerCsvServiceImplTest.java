@@ -4,9 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
 import java.util.List;
+import java.util.stream.Stream;
 
-import org.junit.Test;
+import org.junit.jupiter.api.Test;
 import org.springframework.util.ResourceUtils;
 
 import guru.springframework.spring6restmvc.model.BeerCSVRecord;
@@ -25,4 +27,13 @@ public class BeerCsvServiceImplTest {
 
         assertThat(recs.size()).isGreaterThan(0);
     }
+
+    @Test
+    public void streamCSV() throws FileNotFoundException {
+        File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+
+        try (Stream<BeerCSVRecord> recs = beerCsvService.streamCSV(new FileReader(file))) {
+            assertThat(recs.count()).isEqualTo(beerCsvService.convertCSV(file).size());
+        }
+    }
 }
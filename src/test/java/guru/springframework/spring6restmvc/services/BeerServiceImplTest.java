@@ -0,0 +1,171 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+
+import guru.springframework.spring6restmvc.model.BeerCursor;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CursorPage;
+
+class BeerServiceImplTest {
+
+  BeerServiceImpl beerService;
+
+  @BeforeEach
+  void setUp() {
+    beerService = new BeerServiceImpl();
+    for (int i = 0; i < 30; i++) {
+      beerService.saveNewBeer(beer(String.format("Hoppy Ale %02d", i), i % 2 == 0 ? BeerStyle.ALE : BeerStyle.IPA,
+          "upc-" + i));
+    }
+  }
+
+  @Test
+  void testListBeersPagesInNameOrder() {
+    Page<BeerDTO> first = beerService.listBeers(null, null, true, 0, 10);
+    Page<BeerDTO> last = beerService.listBeers(null, null, true, 3, 10);
+
+    assertThat(first.getTotalElements()).isEqualTo(33);
+    assertThat(first.getContent()).extracting(BeerDTO::getBeerName)
+        .startsWith("Crank", "Galaxy Cat", "Hoppy Ale 00");
+    assertThat(last.getContent()).extracting(BeerDTO::getBeerName)
+        .containsExactly("Hoppy Ale 28", "Hoppy Ale 29", "Sunshine City");
+  }
+
+  @Test
+  void testListBeersByNameAndStyle() {
+    Page<BeerDTO> byName = beerService.listBeers("ALE 1", null, false, null, null);
+    Page<BeerDTO> byNameAndStyle = beerService.listBeers("ale 1", BeerStyle.IPA, true, null, null);
+    Page<BeerDTO> byShortName = beerService.listBeers("Cr", null, true, null, null);
+
+    assertThat(byName.getContent()).hasSize(10).allMatch(beer -> beer.getQuantityOnHand() == null);
+    assertThat(byNameAndStyle.getContent()).extracting(BeerDTO::getBeerName)
+        .containsExactly("Hoppy Ale 11", "Hoppy Ale 13", "Hoppy Ale 15", "Hoppy Ale 17", "Hoppy Ale 19");
+    assertThat(byShortName.getContent()).extracting(BeerDTO::getBeerName).containsExactly("Crank");
+    assertThat(beerService.listBeers(null, BeerStyle.ALE, true, null, 100).getTotalElements()).isEqualTo(15);
+  }
+
+  @Test
+  void testListBeersAfterWalksEveryMatchOnce() {
+    List<String> names = new ArrayList<>();
+    CursorPage<BeerDTO> page = beerService.listBeersAfter("hoppy", BeerStyle.ALE, true, null, 4);
+    page.getContent().forEach(beer -> names.add(beer.getBeerName()));
+    while (page.getNextCursor() != null) {
+      page = beerService.listBeersAfter("hoppy", BeerStyle.ALE, true,
+          BeerCursor.decode(page.getNextCursor()), 4);
+      page.getContent().forEach(beer -> names.add(beer.getBeerName()));
+    }
+
+    assertThat(names).hasSize(15).isSorted().doesNotHaveDuplicates();
+  }
+
+  @Test
+  void testListBeersOrdersLikeTheBeerNameColumn() {
+    List<UUID> twins = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      twins.add(beerService.saveNewBeer(beer("Twin Stout", BeerStyle.STOUT, "twin-" + i)).getId());
+    }
+    beerService.saveNewBeer(beer("\u00c9clair Stout", BeerStyle.STOUT, "eclair"));
+    beerService.saveNewBeer(beer("fig Stout", BeerStyle.STOUT, "fig"));
+
+    List<BeerDTO> stouts = beerService.listBeers(null, BeerStyle.STOUT, true, null, 100).getContent();
+
+    // accents and case are ignored, and equal names fall back to the bytes of the binary id
+    assertThat(stouts).extracting(BeerDTO::getBeerName).startsWith("\u00c9clair Stout", "fig Stout");
+    assertThat(stouts).extracting(BeerDTO::getId).endsWith(twins.stream()
+        .sorted(Comparator.comparing(BeerServiceImplTest::bytesOf, Arrays::compareUnsigned))
+        .toArray(UUID[]::new));
+  }
+
+  @Test
+  void testUpdateReplacesOnlyDescriptiveFields() {
+    BeerDTO beer = beerService.listBeers("Hoppy Ale 04", null, true, null, null).getContent().get(0);
+
+    beerService.updateById(beer.getId(), BeerDTO.builder()
+        .beerName("Hoppy Ale 04")
+        .beerStyle(BeerStyle.PALE_ALE)
+        .upc("upc-4b")
+        .price(BigDecimal.ONE)
+        .quantityOnHand(99)
+        .build(), beer.getVersion());
+
+    BeerDTO updated = beerService.getBeerById(beer.getId()).orElseThrow();
+    assertThat(updated.getBeerStyle()).isEqualTo(BeerStyle.PALE_ALE);
+    assertThat(updated.getPrice()).isEqualTo(BigDecimal.ONE);
+    assertThat(updated.getQuantityOnHand()).isEqualTo(10);
+  }
+
+  @Test
+  void testUpdateReindexesBeer() {
+    BeerDTO beer = beerService.listBeers("Hoppy Ale 04", null, true, null, null).getContent().get(0);
+
+    beerService.patchById(beer.getId(), BeerDTO.builder().beerName("Zesty Stout").beerStyle(BeerStyle.STOUT).build(),
+        beer.getVersion());
+
+    assertThat(beerService.listBeers("Hoppy Ale 04", null, true, null, null).getContent()).isEmpty();
+    assertThat(beerService.listBeers("zesty", BeerStyle.STOUT, true, null, null).getContent())
+        .extracting(BeerDTO::getId).containsExactly(beer.getId());
+    assertThat(beerService.listBeers(null, BeerStyle.ALE, true, null, 100).getTotalElements()).isEqualTo(14);
+    assertThatThrownBy(() -> beerService.patchById(beer.getId(), BeerDTO.builder().build(), beer.getVersion()))
+        .isInstanceOf(OptimisticLockingFailureException.class);
+  }
+
+  @Test
+  void testGetAndDeleteMissingBeer() {
+    assertThat(beerService.getBeerById(UUID.randomUUID())).isEmpty();
+    assertThat(beerService.deleteById(UUID.randomUUID())).isFalse();
+  }
+
+  @Test
+  void testReadsSeeEveryBeerDuringConcurrentRenames() throws Exception {
+    List<BeerDTO> beers = beerService.listBeers("hoppy", null, true, null, 100).getContent();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<?> writer = executor.submit(() -> {
+        for (int round = 0; round < 50; round++) {
+          for (BeerDTO beer : beers) {
+            beerService.patchById(beer.getId(),
+                BeerDTO.builder().beerName("Hoppy Ale " + round + " " + beer.getUpc()).build(), null);
+          }
+        }
+      });
+
+      while (!writer.isDone()) {
+        assertThat(beerService.listBeers("hoppy", null, true, null, 100).getTotalElements()).isEqualTo(30);
+        assertThat(beerService.listBeers(null, BeerStyle.IPA, true, null, 100).getContent()).hasSize(16);
+      }
+      writer.get();
+    }
+  }
+
+  private static byte[] bytesOf(UUID id) {
+    return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+  }
+
+  private static BeerDTO beer(String beerName, BeerStyle beerStyle, String upc) {
+    return BeerDTO.builder()
+        .beerName(beerName)
+        .beerStyle(beerStyle)
+        .upc(upc)
+        .price(BigDecimal.TEN)
+        .quantityOnHand(10)
+        .build();
+  }
+}
@@ -0,0 +1,64 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+
+// H2 has no MATCH ... AGAINST, so the full-text search has to fall back to LIKE
+@SpringBootTest(properties = "app.beer.search.fulltext=true")
+class BeerServiceJPATest {
+
+  @Autowired
+  BeerServiceJPA beerService;
+
+  @Autowired
+  BeerRepository beerRepository;
+
+  @Test
+  void testListBeersByNameFallsBackToLike() {
+    Page<BeerDTO> page = beerService.listBeers("IPA", null, false, 1, 25);
+
+    assertThat(page.getTotalElements()).isEqualTo(beerRepository.countByBeerNameIsLikeIgnoreCase("%IPA%"));
+    assertThat(page.getContent()).isNotEmpty()
+        .allSatisfy(beer -> assertThat(beer.getBeerName()).containsIgnoringCase("IPA"));
+  }
+
+  @Test
+  void testListBeersByNameAndStyleFallsBackToLike() {
+    Page<BeerDTO> page = beerService.listBeers("IPA", BeerStyle.IPA, true, 1, 25);
+
+    assertThat(page.getTotalElements())
+        .isEqualTo(beerRepository.countByBeerNameIsLikeIgnoreCaseAndBeerStyle("%IPA%", BeerStyle.IPA));
+    assertThat(page.getContent()).isNotEmpty()
+        .allSatisfy(beer -> assertThat(beer.getBeerStyle()).isEqualTo(BeerStyle.IPA));
+  }
+
+  @Test
+  void testToFullTextQuerySplitsTermsOnOperators() {
+    assertThat(BeerServiceJPA.toFullTextQuery(" pale  ale ")).isEqualTo("+\"pale\" +\"ale\"");
+    assertThat(BeerServiceJPA.toFullTextQuery("double-ipa")).isEqualTo("+\"double\" +\"ipa\"");
+    assertThat(BeerServiceJPA.toFullTextQuery("\"stout\"*")).isEqualTo("+\"stout\"");
+  }
+
+  @Test
+  void testToFullTextQueryLeavesShortTermsToLike() {
+    assertThat(BeerServiceJPA.toFullTextQuery("a ale")).isNull();
+    assertThat(BeerServiceJPA.toFullTextQuery("-+")).isNull();
+  }
+
+  @Test
+  void testListBeersWithShortTermUsesLike() {
+    Page<BeerDTO> page = beerService.listBeers("x", null, false, 1, 25);
+
+    assertThat(page.getTotalElements()).isEqualTo(beerRepository.countByBeerNameIsLikeIgnoreCase("%x%"));
+    assertThat(page.getContent()).isNotEmpty()
+        .allSatisfy(beer -> assertThat(beer.getBeerName()).containsIgnoringCase("x"));
+  }
+}
@@ -0,0 +1,94 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import guru.springframework.spring6restmvc.model.BeerStats;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.BeerStyleTotals;
+
+class BeerStatsAccumulatorTest {
+
+  BeerStatsAccumulator accumulator;
+
+  @BeforeEach
+  void setUp() {
+    accumulator = new BeerStatsAccumulator();
+    accumulator.add(BeerStyle.IPA, new BigDecimal("10.00"), 5);
+    accumulator.add(BeerStyle.IPA, new BigDecimal("12.50"), null);
+    accumulator.add(BeerStyle.STOUT, new BigDecimal("8.99"), 20);
+  }
+
+  @Test
+  void testSnapshotAggregatesPerStyleAndOverall() {
+    BeerStats stats = accumulator.snapshot();
+
+    assertThat(stats.getBeers()).isEqualTo(3);
+    assertThat(stats.getQuantityOnHand()).isEqualTo(25);
+    assertThat(stats.getMinPrice()).isEqualByComparingTo("8.99");
+    assertThat(stats.getAvgPrice()).isEqualByComparingTo("10.50");
+    assertThat(stats.getMaxPrice()).isEqualByComparingTo("12.50");
+
+    BeerStats.StyleStats ipa = stats.getStyles().get(BeerStyle.IPA.ordinal());
+    assertThat(ipa.getBeers()).isEqualTo(2);
+    assertThat(ipa.getAvgPrice()).isEqualByComparingTo("11.25");
+
+    BeerStats.StyleStats lager = stats.getStyles().get(BeerStyle.LAGER.ordinal());
+    assertThat(lager.getBeers()).isZero();
+    assertThat(lager.getMinPrice()).isNull();
+    assertThat(lager.getAvgPrice()).isNull();
+  }
+
+  @Test
+  void testRemovingAnExtremeMarksItStale() {
+    accumulator.remove(BeerStyle.IPA, new BigDecimal("12.50"), null);
+
+    assertThat(accumulator.hasStaleExtremes()).isTrue();
+    assertThat(accumulator.snapshot().getStyles().get(BeerStyle.IPA.ordinal()).getAvgPrice())
+        .isEqualByComparingTo("10.00");
+
+    accumulator.remove(BeerStyle.IPA, new BigDecimal("10.00"), 5);
+
+    // an emptied style has no extremes left to be stale
+    assertThat(accumulator.hasStaleExtremes()).isFalse();
+    assertThat(accumulator.snapshot().getStyles().get(BeerStyle.IPA.ordinal()).getMaxPrice()).isNull();
+  }
+
+  @Test
+  void testReplaceReplaysChangesMadeWhileQuerying() {
+    List<BeerStyleTotals> totals = List.of(new BeerStyleTotals(BeerStyle.PORTER, 1L, 3L, new BigDecimal("7.00"),
+        new BigDecimal("7.00"), new BigDecimal("7.00")));
+
+    // changes before the query are in its totals, those while it runs are not
+    accumulator.beginReplace();
+    accumulator.add(BeerStyle.PORTER, new BigDecimal("9.00"), 2);
+    accumulator.addQuantity(BeerStyle.PORTER, -1);
+    accumulator.replace(totals);
+
+    BeerStats.StyleStats porter = accumulator.snapshot().getStyles().get(BeerStyle.PORTER.ordinal());
+    assertThat(accumulator.snapshot().getBeers()).isEqualTo(2);
+    assertThat(porter.getQuantityOnHand()).isEqualTo(4);
+    assertThat(porter.getMinPrice()).isEqualByComparingTo("7.00");
+    assertThat(porter.getMaxPrice()).isEqualByComparingTo("9.00");
+
+    // replayed once, later replaces start from their own totals
+    accumulator.replace(totals);
+    assertThat(accumulator.snapshot().getBeers()).isEqualTo(1);
+  }
+
+  @Test
+  void testAbortedReplaceStopsRecording() {
+    accumulator.beginReplace();
+    accumulator.abortReplace();
+    accumulator.add(BeerStyle.PORTER, new BigDecimal("9.00"), 2);
+
+    accumulator.replace(List.of());
+
+    assertThat(accumulator.snapshot().getBeers()).isZero();
+  }
+}
@@ -0,0 +1,39 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+
+class CustomerServiceImplTest {
+
+  CustomerServiceImpl customerService;
+
+  @BeforeEach
+  void setUp() {
+    customerService = new CustomerServiceImpl();
+    customerService.saveNewCustomer(CustomerDTO.builder().customerName("Ross O'Donovan")
+        .email("ross@example.com").build());
+    customerService.saveNewCustomer(CustomerDTO.builder().customerName("Suzy Berhow")
+        .email("suzy@example.com").build());
+  }
+
+  @Test
+  void testListCustomersFiltersLikeTheRepository() {
+    assertThat(customerService.listCustomers(null, null, null, null).getContent())
+        .extracting(CustomerDTO::getCustomerName)
+        .containsExactly("Arin Hanson", "Dan Avidan", "Ross O'Donovan", "Suzy Berhow");
+    assertThat(customerService.listCustomers("AN", null, null, null).getContent())
+        .extracting(CustomerDTO::getCustomerName)
+        .containsExactly("Arin Hanson", "Dan Avidan", "Ross O'Donovan");
+    assertThat(customerService.listCustomers(null, "suzy@", null, null).getContent())
+        .extracting(CustomerDTO::getCustomerName)
+        .containsExactly("Suzy Berhow");
+    assertThat(customerService.listCustomers("an", "ross", null, null).getContent())
+        .extracting(CustomerDTO::getCustomerName)
+        .containsExactly("Ross O'Donovan");
+    assertThat(customerService.listCustomers("an", "example.com", null, null).getContent()).isEmpty();
+  }
+}
@@ -0,0 +1,85 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.mappers.CustomerMapper;
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+
+@SpringBootTest
+class CustomerServiceJPATest {
+
+  @Autowired
+  CustomerServiceJPA customerService;
+
+  @Autowired
+  CustomerRepository customerRepository;
+
+  @MockitoSpyBean
+  CustomerMapper customerMapper;
+
+  UUID customerId;
+
+  @BeforeEach
+  void setUp() {
+    customerId = customerRepository.save(Customer.builder().customerName("Before Write").build()).getId();
+  }
+
+  @AfterEach
+  void tearDown() {
+    customerService.deleteById(customerId);
+  }
+
+  @Test
+  void testReadDuringUpdateDoesNotCacheOldCustomer() throws Exception {
+    readWhileWriting();
+
+    customerService.updateById(customerId, CustomerDTO.builder().customerName("After Write").build());
+
+    assertThat(customerService.getCustomerById(customerId)).map(CustomerDTO::getCustomerName)
+        .contains("After Write");
+  }
+
+  @Test
+  void testReadDuringPatchDoesNotCacheOldCustomer() throws Exception {
+    readWhileWriting();
+
+    customerService.patchById(customerId, CustomerDTO.builder().customerName("After Write").build());
+
+    assertThat(customerService.getCustomerById(customerId)).map(CustomerDTO::getCustomerName)
+        .contains("After Write");
+  }
+
+  /**
+   * Once the write has changed the entity, but before it commits, reads the
+   * customer on another thread, which loads and caches the committed old row.
+   */
+  private void readWhileWriting() {
+    AtomicBoolean read = new AtomicBoolean();
+    doAnswer(invocation -> {
+      if (read.compareAndSet(false, true)) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+          assertThat(executor.submit(() -> customerService.getCustomerById(customerId)).get(5, TimeUnit.SECONDS))
+              .map(CustomerDTO::getCustomerName).contains("Before Write");
+        }
+      }
+      return invocation.callRealMethod();
+    }).when(customerMapper).customerToCustomerDTO(any());
+  }
+}
@@ -0,0 +1,123 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class DbBulkheadTest {
+
+  @Test
+  void testRejectsWhenWaitQueueIsFull() {
+    DbBulkhead bulkhead = new DbBulkhead(null, 1, 0, Duration.ofSeconds(1), Duration.ofSeconds(3));
+
+    bulkhead.acquire();
+    try {
+      assertThatThrownBy(bulkhead::acquire)
+          .isInstanceOf(DbBulkheadFullException.class)
+          .extracting("retryAfter").isEqualTo(Duration.ofSeconds(3));
+    } finally {
+      bulkhead.release();
+    }
+
+    assertThat(bulkhead.getAdmitted()).isEqualTo(1);
+    assertThat(bulkhead.getRejected()).isEqualTo(1);
+    assertThat(bulkhead.getActive()).isZero();
+  }
+
+  @Test
+  void testRejectsWhenWaitTimesOut() {
+    DbBulkhead bulkhead = new DbBulkhead(null, 1, 10, Duration.ofMillis(50), Duration.ofSeconds(1));
+
+    bulkhead.acquire();
+    try {
+      assertThatThrownBy(bulkhead::acquire).isInstanceOf(DbBulkheadFullException.class);
+    } finally {
+      bulkhead.release();
+    }
+
+    assertThat(bulkhead.getRejected()).isEqualTo(1);
+    assertThat(bulkhead.getMaxQueueTime()).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+  }
+
+  @Test
+  void testQueuedCallerIsAdmittedOnRelease() throws Exception {
+    DbBulkhead bulkhead = new DbBulkhead(null, 1, 10, Duration.ofSeconds(5), Duration.ofSeconds(1));
+    CountDownLatch queued = new CountDownLatch(1);
+
+    bulkhead.acquire();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<?> waiter = executor.submit(() -> {
+        queued.countDown();
+        bulkhead.acquire();
+        bulkhead.release();
+      });
+
+      queued.await();
+      while (bulkhead.getWaiting() == 0) {
+        Thread.onSpinWait();
+      }
+      bulkhead.release();
+      waiter.get(5, TimeUnit.SECONDS);
+    }
+
+    assertThat(bulkhead.getAdmitted()).isEqualTo(2);
+    assertThat(bulkhead.getRejected()).isZero();
+    assertThat(bulkhead.getTotalQueueTime()).isPositive();
+  }
+
+  @Test
+  void testReleasedPermitGoesToQueuedCallerNotNewcomer() throws Exception {
+    DbBulkhead bulkhead = new DbBulkhead(null, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(1));
+    CountDownLatch admitted = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+
+    bulkhead.acquire();
+    Thread waiter = Thread.ofPlatform().start(() -> {
+      bulkhead.acquire();
+      admitted.countDown();
+      try {
+        done.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        bulkhead.release();
+      }
+    });
+    // parked on the semaphore, not merely counted as waiting
+    while (waiter.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(1);
+    }
+
+    bulkhead.release();
+    // the queued caller is owed the permit, a newcomer finds the one wait slot taken
+    assertThatThrownBy(bulkhead::acquire).isInstanceOf(DbBulkheadFullException.class);
+    assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+    done.countDown();
+    waiter.join();
+
+    assertThat(bulkhead.getAdmitted()).isEqualTo(2);
+    assertThat(bulkhead.getRejected()).isEqualTo(1);
+    assertThat(bulkhead.getActive()).isZero();
+  }
+
+  @Test
+  void testCallReleasesPermit() {
+    DbBulkhead bulkhead = new DbBulkhead(null, 1, 0, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+    assertThat(bulkhead.call(bulkhead::getActive)).isEqualTo(1);
+    assertThatThrownBy(() -> bulkhead.call(() -> {
+      throw new IllegalStateException();
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(bulkhead.getActive()).isZero();
+    assertThat(bulkhead.getAdmitted()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,97 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import guru.springframework.spring6restmvc.model.BeerDTO;
+
+class DtoCacheTest {
+
+  DtoCache<BeerDTO> cache = DtoCache.of(100, Duration.ofMinutes(10), BeerDTO::getVersion);
+
+  @Test
+  void testLoadStartedBeforeEvictionIsNotCached() throws Exception {
+    UUID id = UUID.randomUUID();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch evicted = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      // the reader loads version 0 before the writer commits version 1 ...
+      Future<Optional<BeerDTO>> reader = executor.submit(() -> cache.get(id, beerId -> {
+        loading.countDown();
+        await(evicted);
+        return Optional.of(beer(beerId, 0));
+      }));
+
+      // ... and the writer's after-commit eviction runs before the reader caches it
+      loading.await();
+      cache.evict(id);
+      evicted.countDown();
+
+      assertThat(reader.get(5, TimeUnit.SECONDS)).map(BeerDTO::getVersion).contains(0);
+    }
+
+    assertThat(cache.nativeCache().getIfPresent(id)).isNull();
+    assertThat(cache.get(id, beerId -> Optional.of(beer(beerId, 1)))).map(BeerDTO::getVersion).contains(1);
+    assertThat(cache.nativeCache().getIfPresent(id)).extracting(BeerDTO::getVersion).isEqualTo(1);
+  }
+
+  @Test
+  void testLoadStartedAfterEvictionIsCached() {
+    UUID id = UUID.randomUUID();
+    cache.evict(id);
+
+    cache.get(id, beerId -> Optional.of(beer(beerId, 3)));
+
+    assertThat(cache.nativeCache().getIfPresent(id)).extracting(BeerDTO::getVersion).isEqualTo(3);
+  }
+
+  @Test
+  void testForgottenTombstoneStillBlocksOlderLoads() throws Exception {
+    DtoCache<BeerDTO> small = DtoCache.of(1, Duration.ofMinutes(10), BeerDTO::getVersion);
+    UUID id = UUID.randomUUID();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch evicted = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<?> reader = executor.submit(() -> small.get(id, beerId -> {
+        loading.countDown();
+        await(evicted);
+        return Optional.of(beer(beerId, 0));
+      }));
+
+      loading.await();
+      small.evict(id);
+      // more tombstones than the cache holds push the one for id out
+      for (int i = 0; i < 100; i++) {
+        small.evict(UUID.randomUUID());
+      }
+      evicted.countDown();
+      reader.get(5, TimeUnit.SECONDS);
+    }
+
+    assertThat(small.nativeCache().getIfPresent(id)).isNull();
+  }
+
+  private static BeerDTO beer(UUID id, int version) {
+    return BeerDTO.builder().id(id).version(version).beerName("Cached " + version).build();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
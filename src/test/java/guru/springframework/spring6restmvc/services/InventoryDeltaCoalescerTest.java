@@ -0,0 +1,155 @@
+package guru.springframework.spring6restmvc.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.InventoryLevel;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+
+@SpringBootTest
+class InventoryDeltaCoalescerTest {
+
+  @Autowired
+  BeerRepository beerRepository;
+
+  @Autowired
+  DtoCache<BeerDTO> beerDtoCache;
+
+  @Autowired
+  BeerCatalogStats beerCatalogStats;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  InventoryDeltaCoalescer coalescer;
+  Beer beer;
+
+  @BeforeEach
+  void setUp() {
+    // flushed by hand, the scheduled flush never fires during a test
+    coalescer = new InventoryDeltaCoalescer(beerRepository, beerDtoCache, beerCatalogStats, transactionManager, true,
+        Duration.ofHours(1), 2);
+    beer = beerRepository.save(Beer.builder()
+        .beerName("Coalesced Beer")
+        .beerStyle(BeerStyle.STOUT)
+        .upc("coalesce-1")
+        .price(BigDecimal.TEN)
+        .quantityOnHand(10)
+        .build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    coalescer.destroy();
+    beerRepository.deleteById(beer.getId());
+  }
+
+  @Test
+  void testFlushWritesNetDeltaOnce() {
+    setStock(beer, 200);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 200; i++) {
+        int delta = i % 2 == 0 ? 3 : -2;
+        executor.submit(() -> coalescer.add(beer.getId(), delta, () -> stock(beer)));
+      }
+    }
+
+    assertThat(coalescer.flush()).isEqualTo(1);
+    assertThat(coalescer.flush()).isZero();
+
+    Beer flushed = beerRepository.findById(beer.getId()).get();
+    assertThat(flushed.getQuantityOnHand()).isEqualTo(300);
+    assertThat(coalescer.getSubmitted()).isEqualTo(200);
+    assertThat(coalescer.getApplied()).isEqualTo(1);
+  }
+
+  @Test
+  void testAddRejectsSaleBeyondPendingStock() {
+    assertThat(coalescer.add(beer.getId(), -4, () -> stock(beer))).isTrue();
+    assertThatThrownBy(() -> coalescer.add(beer.getId(), -7, () -> stock(beer)))
+        .isInstanceOf(InsufficientInventoryException.class);
+    assertThat(coalescer.add(UUID.randomUUID(), -1, Optional::empty)).isFalse();
+
+    assertThat(coalescer.flush()).isEqualTo(1);
+
+    assertThat(beerRepository.findById(beer.getId()).get().getQuantityOnHand()).isEqualTo(6);
+    assertThat(coalescer.getSubmitted()).isEqualTo(1);
+    assertThat(coalescer.getRejected()).isZero();
+    // the flushed sale no longer holds stock on top of the written one
+    assertThat(coalescer.add(beer.getId(), -6, () -> stock(beer))).isTrue();
+  }
+
+  @Test
+  void testFlushRejectsNetDeltaBelowZero() {
+    coalescer.add(beer.getId(), -8, () -> stock(beer));
+    setStock(beer, 5);
+
+    assertThat(coalescer.flush()).isZero();
+
+    assertThat(beerRepository.findById(beer.getId()).get().getQuantityOnHand()).isEqualTo(5);
+    assertThat(coalescer.getRejected()).isEqualTo(1);
+    assertThat(coalescer.add(beer.getId(), -5, () -> stock(beer))).isTrue();
+  }
+
+  @Test
+  void testRejectionOfRolledBackFlushCountedOnce() {
+    Beer restocked = beerRepository.save(Beer.builder()
+        .beerName("Restocked Beer")
+        .beerStyle(BeerStyle.STOUT)
+        .upc("coalesce-2")
+        .price(BigDecimal.TEN)
+        .quantityOnHand(0)
+        .build());
+    BeerCatalogStats failingStats = mock(BeerCatalogStats.class);
+    doThrow(new IllegalStateException("stats unavailable")).doNothing()
+        .when(failingStats).quantityAdjusted(any(), anyLong());
+    coalescer.destroy();
+    coalescer = new InventoryDeltaCoalescer(beerRepository, beerDtoCache, failingStats, transactionManager, true,
+        Duration.ofHours(1), 2);
+    try {
+      coalescer.add(beer.getId(), -8, () -> stock(beer));
+      coalescer.add(restocked.getId(), 4, () -> stock(restocked));
+      setStock(beer, 5);
+
+      assertThat(coalescer.flush()).isZero();
+      assertThat(coalescer.getRejected()).isZero();
+      assertThat(coalescer.flush()).isEqualTo(1);
+
+      assertThat(coalescer.getRejected()).isEqualTo(1);
+      assertThat(beerRepository.findById(restocked.getId()).get().getQuantityOnHand()).isEqualTo(4);
+    } finally {
+      beerRepository.deleteById(restocked.getId());
+    }
+  }
+
+  private Optional<Integer> stock(Beer beer) {
+    return beerRepository.findInventoryLevelById(beer.getId()).map(InventoryLevel::quantityOnHand);
+  }
+
+  private void setStock(Beer beer, int quantityOnHand) {
+    Beer current = beerRepository.findById(beer.getId()).get();
+    current.setQuantityOnHand(quantityOnHand);
+    beerRepository.save(current);
+  }
+}